@@ -0,0 +1,145 @@
+package api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import model.ChapterManifest;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Caches /at-home/server results, split by how long each part stays valid.
+ * Chapter manifests (hash + file names) never change for a chapter version, so
+ * they are kept in memory and on disk indefinitely. Node base URLs expire
+ * after ~15 minutes on MangaDex's side and are only kept for a short TTL.
+ */
+public final class AtHomeCache {
+
+    private static final Logger logger = LogManager.getLogger(AtHomeCache.class);
+
+    // MangaDex node URLs are valid for 15 minutes; refresh a little before that
+    static final Duration NODE_TTL = Duration.ofMinutes(10);
+
+    private static final AtHomeCache INSTANCE = new AtHomeCache(
+            Paths.get(System.getProperty("user.home"), ".yomikomu", "cache", "manifests"),
+            NODE_TTL,
+            System::currentTimeMillis
+    );
+
+    private record NodeEntry(String baseUrl, long expiresAt) {}
+
+    private final Path manifestDir;
+    private final long nodeTtlMillis;
+    private final LongSupplier clock;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<String, ChapterManifest> manifests = new ConcurrentHashMap<>();
+    private final Map<String, NodeEntry> nodes = new ConcurrentHashMap<>();
+
+    AtHomeCache(Path manifestDir, Duration nodeTtl, LongSupplier clock) {
+        this.manifestDir = manifestDir;
+        this.nodeTtlMillis = nodeTtl.toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * Get the cache shared by all MangaDexClient instances.
+     * @return AtHomeCache instance
+     */
+    public static AtHomeCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get a chapter's manifest from memory, falling back to disk.
+     * @param chapterId The chapter ID
+     * @return the manifest, or empty if it was never fetched
+     */
+    public Optional<ChapterManifest> getManifest(String chapterId) {
+        ChapterManifest manifest = manifests.get(chapterId);
+        if (manifest != null) {
+            return Optional.of(manifest);
+        }
+
+        Path file = manifestFile(chapterId);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try {
+            manifest = mapper.readValue(file.toFile(), ChapterManifest.class);
+            manifests.put(chapterId, manifest);
+            return Optional.of(manifest);
+        } catch (IOException e) {
+            logger.warn("Discarding unreadable manifest {}: {}", file, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Remember a chapter's manifest in memory and on disk.
+     * @param manifest The manifest to store
+     */
+    public void putManifest(ChapterManifest manifest) {
+        ChapterManifest previous = manifests.put(manifest.chapterId(), manifest);
+        if (manifest.equals(previous)) {
+            return;
+        }
+        try {
+            Files.createDirectories(manifestDir);
+            mapper.writeValue(manifestFile(manifest.chapterId()).toFile(), manifest);
+        } catch (IOException e) {
+            logger.error("Failed to persist manifest for chapter {}", manifest.chapterId(), e);
+        }
+    }
+
+    /**
+     * Get the at-home node base URL for a chapter if it has not expired yet.
+     * @param chapterId The chapter ID
+     * @return the base URL, or empty if unknown or expired
+     */
+    public Optional<String> getBaseUrl(String chapterId) {
+        NodeEntry entry = nodes.get(chapterId);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (clock.getAsLong() >= entry.expiresAt()) {
+            nodes.remove(chapterId, entry);
+            return Optional.empty();
+        }
+        return Optional.of(entry.baseUrl());
+    }
+
+    /**
+     * Remember the at-home node base URL for a chapter for the node TTL.
+     */
+    public void putBaseUrl(String chapterId, String baseUrl) {
+        nodes.put(chapterId, new NodeEntry(baseUrl, clock.getAsLong() + nodeTtlMillis));
+    }
+
+    /**
+     * Forget a chapter's node base URL, e.g. after the node answered 403.
+     */
+    public void invalidateBaseUrl(String chapterId) {
+        nodes.remove(chapterId);
+    }
+
+    /**
+     * Forget a chapter's node base URL only if it is still the given one, so a
+     * rejection of an old node does not discard a node fetched since.
+     */
+    public void invalidateBaseUrl(String chapterId, String baseUrl) {
+        nodes.computeIfPresent(chapterId, (id, entry) -> entry.baseUrl().equals(baseUrl) ? null : entry);
+    }
+
+    private Path manifestFile(String chapterId) {
+        // Chapter IDs are UUIDs; strip anything that could escape the directory
+        return manifestDir.resolve(chapterId.replaceAll("[^A-Za-z0-9-]", "_") + ".json");
+    }
+}
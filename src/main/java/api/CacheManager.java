@@ -2,9 +2,11 @@ package api;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.Comparator;
 import static java.nio.file.Files.walk;
 import ui.showOptions;
@@ -79,7 +81,20 @@ public class CacheManager {
         if (!isCachingEnabled()) {
             return;
         }
-        Files.write(getCachedFile(url).toPath(), data);
+        // Written to a temporary file and moved into place, so a page being written
+        // (e.g. by a prefetch) is never seen as cached while it is still incomplete
+        Path target = getCachedFile(url).toPath();
+        Path temp = Files.createTempFile(cacheDir, target.getFileName().toString(), ".part");
+        try {
+            Files.write(temp, data);
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
     }
 
     public void clearCache() {
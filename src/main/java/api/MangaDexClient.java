@@ -7,6 +7,8 @@
 package api;
 
 import com.fasterxml.jackson.databind.*;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import exception.HttpStatusException;
 import exception.UhOhPythonDied;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -16,6 +18,10 @@ import java.net.http.*;
 import java.net.*;
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiFunction;
 import model.*;
 import ui.MangaListPanel;
 
@@ -25,11 +31,31 @@ import static java.lang.System.err;
 
 public class MangaDexClient {
     private static final Logger logger = LogManager.getLogger(MangaDexClient.class);
-    private static final String API = "https://api.mangadex.org";
+    // Override with -Dshiori.api.url=... to point at a local stand-in (see stub.MangaDexStubServer)
+    private static final String API = System.getProperty("shiori.api.url", "https://api.mangadex.org");
+    // MangaDex accepts at most 100 IDs per ids[] / manga[] list request
+    private static final int MAX_IDS_PER_REQUEST = 100;
+    private static final long BATCH_WINDOW_MILLIS = 5;
+    private static final String ALL_CONTENT_RATINGS =
+            "&contentRating[]=safe&contentRating[]=suggestive&contentRating[]=erotica&contentRating[]=pornographic";
+
     private final HttpClient client = HttpClient.newHttpClient();
     private final ObjectMapper mapper = new ObjectMapper();
-
-    // Jython interpreter and Python module
+    private final AtHomeCache atHomeCache = AtHomeCache.getInstance();
+    // In-flight /at-home/server requests by chapter ID
+    private final Map<String, CompletableFuture<ChapterManifest>> atHomeRequests = new ConcurrentHashMap<>();
+
+    // Single-ID lookups that arrive within a few ms of each other go out as one request.
+    // The loaders run on the batchers' own threads and take the interpreter's monitor like
+    // every other call, so callers must not wait on them from the EDT.
+    private final MicroBatcher<String, Manga> mangaBatcher =
+            new MicroBatcher<>("manga", this::getMangas, BATCH_WINDOW_MILLIS, MAX_IDS_PER_REQUEST);
+    private final MicroBatcher<String, JsonNode> statsBatcher =
+            new MicroBatcher<>("stats", this::getMangaStats, BATCH_WINDOW_MILLIS, MAX_IDS_PER_REQUEST);
+
+    // Jython interpreter and Python module. The interpreter is not thread-safe and calls
+    // pass their arguments and results through its globals, so every set/exec/get
+    // sequence holds its monitor.
     private final PythonInterpreter interpreter;
     private final boolean pythonAvailable;
 
@@ -60,6 +86,10 @@ public class MangaDexClient {
             interpreter.exec("import mangadex_api");
             logger.debug("LOG-PYTHON: Attempted to import mangadex_api");
 
+            // Keep the Python side on the same API base URL as the Java fallback
+            interpreter.set("api_base", API);
+            interpreter.exec("mangadex_api.API_BASE = api_base");
+
             return true;
         } catch (Exception e) {
             JOptionPane.showMessageDialog(
@@ -119,18 +149,21 @@ public class MangaDexClient {
     public List<Manga> searchManga(String title, boolean nsfwEnabled) throws Exception {
         if (pythonAvailable) {
             try {
-                // Set parameters for Python call
-                interpreter.set("title", title);
-                interpreter.set("nsfw_enabled", nsfwEnabled);
-
-                // Execute Python function and capture result
-                interpreter.exec(
-                    "results = mangadex_api.search_manga(title, nsfw_enabled)\n" +
-                    "import json\n" +
-                    "results_json = json.dumps(results) if results else None"
-                );
+                String jsonStr;
+                synchronized (interpreter) {
+                    // Set parameters for Python call
+                    interpreter.set("title", title);
+                    interpreter.set("nsfw_enabled", nsfwEnabled);
+
+                    // Execute Python function and capture result
+                    interpreter.exec(
+                        "results = mangadex_api.search_manga(title, nsfw_enabled)\n" +
+                        "import json\n" +
+                        "results_json = json.dumps(results) if results else None"
+                    );
+                    jsonStr = interpreter.get("results_json").toString();
+                }
 
-                String jsonStr = interpreter.get("results_json").toString();
                 if (jsonStr != null && !jsonStr.isEmpty()) {
                     JsonNode root = mapper.readTree(jsonStr);
                     List<Manga> result = new ArrayList<>();
@@ -179,50 +212,66 @@ public class MangaDexClient {
     }
 
     /**
-     * Get a manga by its ID using Python implementation if available.
+     * Get a manga by its ID. Concurrent calls are coalesced into one batched request.
      */
     public java.util.Optional<Manga> getManga(String mangaId) throws Exception {
+        return java.util.Optional.ofNullable(awaitBatched(mangaBatcher, mangaId));
+    }
+
+    /**
+     * Get several manga in as few requests as possible, using Python implementation if available.
+     * @param mangaIds IDs to look up
+     * @return map of manga ID to manga; IDs that were not found are absent
+     */
+    public Map<String, Manga> getMangas(Collection<String> mangaIds) throws Exception {
+        Map<String, Manga> result = new LinkedHashMap<>();
+        if (mangaIds.isEmpty()) return result;
+
         if (pythonAvailable) {
             try {
-                interpreter.set("manga_id", mangaId);
-                interpreter.exec(
-                    "result = mangadex_api.get_manga(manga_id)\n" +
-                    "import json\n" +
-                    "result_json = json.dumps(result) if result else None"
-                );
+                String jsonStr;
+                synchronized (interpreter) {
+                    interpreter.set("manga_ids_json", mapper.writeValueAsString(mangaIds));
+                    interpreter.exec(
+                        "import json\n" +
+                        "mangas = mangadex_api.get_mangas(json.loads(manga_ids_json))\n" +
+                        "mangas_json = json.dumps(mangas) if mangas else None"
+                    );
+                    jsonStr = interpreter.get("mangas_json").toString();
+                }
 
-                String jsonStr = interpreter.get("result_json").toString();
                 if (jsonStr != null && !jsonStr.isEmpty() && !jsonStr.equals("None")) {
-                    JsonNode node = mapper.readTree(jsonStr);
-                    String id = node.get("id").asText();
-                    String mangaTitle = node.get("title").asText();
-                    return java.util.Optional.of(new Manga(id, mangaTitle));
+                    for (JsonNode node : mapper.readTree(jsonStr)) {
+                        String id = node.get("id").asText();
+                        result.put(id, new Manga(id, node.get("title").asText()));
+                    }
+                    return result;
                 }
             } catch (Exception e) {
-                JOptionPane.showMessageDialog(
-                        null,
-                        "Python fault: " + e.getMessage(),
-                        "Error",
-                        JOptionPane.ERROR_MESSAGE
-                );
-                throw new UhOhPythonDied(null, null) {};
+                // May run off the EDT, so no dialog here; the caller reports failures of the fallback
+                logger.warn("Python get_mangas failed, falling back to Java: {}", e.getMessage());
             }
         }
 
         // Fallback to Java implementation
-        String url = API + "/manga/" + mangaId;
-
-        JsonNode root = get(url);
-        JsonNode data = root.get("data");
+        for (List<String> chunk : chunk(mangaIds)) {
+            StringBuilder url = new StringBuilder(API + "/manga?limit=" + MAX_IDS_PER_REQUEST + ALL_CONTENT_RATINGS);
+            for (String id : chunk) {
+                url.append("&ids[]=").append(URLEncoder.encode(id, "UTF-8"));
+            }
 
-        String id = data.get("id").asText();
-        JsonNode titles = data.get("attributes").get("title");
+            for (JsonNode node : get(url.toString()).path("data")) {
+                String id = node.get("id").asText();
+                JsonNode titles = node.get("attributes").get("title");
 
-        String name = titles.has("en")
-                ? titles.get("en").asText()
-                : titles.elements().next().asText();
+                String name = titles.has("en")
+                        ? titles.get("en").asText()
+                        : titles.elements().next().asText();
 
-        return java.util.Optional.of(new Manga(id, name));
+                result.put(id, new Manga(id, name));
+            }
+        }
+        return result;
     }
 
     /**
@@ -238,18 +287,21 @@ public class MangaDexClient {
     public List<Chapter> getChapters(String mangaId, boolean nsfwEnabled) throws Exception {
         if (pythonAvailable) {
             try {
-                // Set parameters for Python call
-                interpreter.set("manga_id", mangaId);
-                interpreter.set("nsfw_enabled", nsfwEnabled);
-
-                // Execute Python function and capture result
-                interpreter.exec(
-                    "chapters = mangadex_api.get_chapters(manga_id, nsfw_enabled)\n" +
-                    "import json\n" +
-                    "chapters_json = json.dumps(chapters) if chapters else None"
-                );
+                String jsonStr;
+                synchronized (interpreter) {
+                    // Set parameters for Python call
+                    interpreter.set("manga_id", mangaId);
+                    interpreter.set("nsfw_enabled", nsfwEnabled);
+
+                    // Execute Python function and capture result
+                    interpreter.exec(
+                        "chapters = mangadex_api.get_chapters(manga_id, nsfw_enabled)\n" +
+                        "import json\n" +
+                        "chapters_json = json.dumps(chapters) if chapters else None"
+                    );
+                    jsonStr = interpreter.get("chapters_json").toString();
+                }
 
-                String jsonStr = interpreter.get("chapters_json").toString();
                 if (jsonStr != null && !jsonStr.isEmpty()) {
                     JsonNode root = mapper.readTree(jsonStr);
                     List<Chapter> result = new ArrayList<>();
@@ -298,30 +350,131 @@ public class MangaDexClient {
     }
 
     /**
-     * Get page URLs for a chapter using Python implementation if available.
+     * Get page URLs for a chapter on its current at-home node.
      */
     public List<String> getPageUrls(String chapterId) throws Exception {
-        if (pythonAvailable) {
+        ChapterManifest manifest = getChapterManifest(chapterId);
+        String baseUrl = getAtHomeBaseUrl(chapterId);
+
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < manifest.pageCount(); i++) {
+            urls.add(manifest.pageUrl(baseUrl, i));
+        }
+        return urls;
+    }
+
+    /**
+     * Get the page list of a chapter. Manifests are immutable per chapter version,
+     * so once fetched they are served from the cache without any API call.
+     */
+    public ChapterManifest getChapterManifest(String chapterId) throws Exception {
+        Optional<ChapterManifest> cached = atHomeCache.getManifest(chapterId);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        return fetchAtHome(chapterId);
+    }
+
+    /**
+     * Get the at-home node base URL for a chapter, refreshing it once it has expired.
+     */
+    public String getAtHomeBaseUrl(String chapterId) throws Exception {
+        Optional<String> cached = atHomeCache.getBaseUrl(chapterId);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        fetchAtHome(chapterId);
+        return atHomeCache.getBaseUrl(chapterId)
+                .orElseThrow(() -> new IOException("No at-home node for chapter " + chapterId));
+    }
+
+    /**
+     * Download one page of a chapter. If the at-home node rejects the request
+     * (its token expired or the node went away), a fresh node is requested and
+     * the download retried once.
+     */
+    public byte[] fetchPage(ChapterManifest manifest, int pageIndex) throws Exception {
+        return downloadFromNode(manifest, (current, baseUrl) -> current.pageUrl(baseUrl, pageIndex));
+    }
+
+    /**
+     * Download the data-saver rendition of a page, a much smaller copy that can be
+     * shown while the full page is still downloading.
+     */
+    public byte[] fetchPreview(ChapterManifest manifest, int pageIndex) throws Exception {
+        return downloadFromNode(manifest, (current, baseUrl) -> current.previewUrl(baseUrl, pageIndex));
+    }
+
+    private byte[] downloadFromNode(ChapterManifest manifest,
+                                    BiFunction<ChapterManifest, String, String> urlForNode) throws Exception {
+        String chapterId = manifest.chapterId();
+        String baseUrl = getAtHomeBaseUrl(chapterId);
+        try {
+            return ImageDownloader.getInstance().download(urlForNode.apply(manifest, baseUrl));
+        } catch (HttpStatusException e) {
+            if (e.getStatusCode() != 401 && e.getStatusCode() != 403 && e.getStatusCode() != 404) {
+                throw e;
+            }
+            logger.info("At-home node answered {} for chapter {}, requesting a new node", e.getStatusCode(), chapterId);
+            // Other fetch threads may already have replaced the node
+            atHomeCache.invalidateBaseUrl(chapterId, baseUrl);
+            String freshUrl = getAtHomeBaseUrl(chapterId);
+            // The refresh also stores the chapter's current hash, which changes when it is re-uploaded
+            ChapterManifest current = atHomeCache.getManifest(chapterId).orElse(manifest);
+            return ImageDownloader.getInstance().download(urlForNode.apply(current, freshUrl));
+        }
+    }
+
+    /**
+     * Call /at-home/server and cache both the manifest and the node base URL.
+     * Concurrent calls for the same chapter (e.g. every fetch thread finding the
+     * node expired) share one request.
+     */
+    private ChapterManifest fetchAtHome(String chapterId) throws Exception {
+        CompletableFuture<ChapterManifest> request = new CompletableFuture<>();
+        CompletableFuture<ChapterManifest> inFlight = atHomeRequests.putIfAbsent(chapterId, request);
+        if (inFlight == null) {
             try {
-                interpreter.set("chapter_id", chapterId);
-                interpreter.exec(
-                    "page_urls = mangadex_api.get_page_urls(chapter_id)\n" +
-                    "import json\n" +
-                    "page_urls_json = json.dumps(page_urls)"
-                );
+                request.complete(requestAtHome(chapterId));
+            } catch (Exception e) {
+                request.completeExceptionally(e);
+            } finally {
+                atHomeRequests.remove(chapterId, request);
+            }
+            inFlight = request;
+        }
 
-                String jsonStr = interpreter.get("page_urls_json").toString();
-                if (jsonStr != null && !jsonStr.isEmpty()) {
-                    JsonNode root = mapper.readTree(jsonStr);
-                    List<String> urls = new ArrayList<>();
+        try {
+            return inFlight.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
 
-                    for (JsonNode node : root) {
-                        urls.add(node.asText());
-                    }
+    /**
+     * Call /at-home/server using Python implementation if available, and cache
+     * both the manifest and the node base URL.
+     */
+    private ChapterManifest requestAtHome(String chapterId) throws Exception {
+        JsonNode root = null;
+        if (pythonAvailable) {
+            try {
+                String jsonStr;
+                synchronized (interpreter) {
+                    interpreter.set("chapter_id", chapterId);
+                    interpreter.exec(
+                        "at_home = mangadex_api.get_at_home_server(chapter_id)\n" +
+                        "import json\n" +
+                        "at_home_json = json.dumps(at_home) if at_home else None"
+                    );
+                    jsonStr = interpreter.get("at_home_json").toString();
+                }
 
-                    if (!urls.isEmpty()) {
-                        return urls;
-                    }
+                if (jsonStr != null && !jsonStr.isEmpty() && !jsonStr.equals("None")) {
+                    root = mapper.readTree(jsonStr);
                 }
             } catch (Exception e) {
                 JOptionPane.showMessageDialog(
@@ -331,52 +484,104 @@ public class MangaDexClient {
                         JOptionPane.ERROR_MESSAGE
                 );
                 throw new UhOhPythonDied(null, null) {};
-
             }
         }
 
         // Fallback to Java implementation
-        JsonNode root = get(API + "/at-home/server/" + chapterId);
-
-        String base = root.get("baseUrl").asText();
-        String hash = root.get("chapter").get("hash").asText();
+        if (root == null) {
+            root = get(API + "/at-home/server/" + chapterId);
+        }
 
-        List<String> urls = new ArrayList<>();
-        for (JsonNode file : root.get("chapter").get("data")) {
-            urls.add(base + "/data/" + hash + "/" + file.asText());
+        JsonNode chapter = root.path("chapter");
+        List<String> data = new ArrayList<>();
+        for (JsonNode file : chapter.path("data")) {
+            data.add(file.asText());
         }
-        return urls;
+        List<String> dataSaver = new ArrayList<>();
+        for (JsonNode file : chapter.path("dataSaver")) {
+            dataSaver.add(file.asText());
+        }
+        if (!root.hasNonNull("baseUrl") || !chapter.hasNonNull("hash")) {
+            throw new IOException("Malformed at-home response for chapter " + chapterId);
+        }
+
+        ChapterManifest manifest = new ChapterManifest(chapterId, chapter.get("hash").asText(), data, dataSaver);
+        atHomeCache.putManifest(manifest);
+        atHomeCache.putBaseUrl(chapterId, root.get("baseUrl").asText());
+        return manifest;
     }
 
     /**
-     * Get manga statistics using Python implementation if available.
+     * Get manga statistics. Concurrent calls are coalesced into one batched request.
      */
     public JsonNode getMangaStats(String mangaId) throws Exception {
+        JsonNode stats = awaitBatched(statsBatcher, mangaId);
+        return stats != null ? stats : MissingNode.getInstance();
+    }
+
+    /**
+     * Get statistics for several manga at once, using Python implementation if available.
+     * @param mangaIds IDs to look up
+     * @return map of manga ID to its statistics node
+     */
+    public Map<String, JsonNode> getMangaStats(Collection<String> mangaIds) throws Exception {
+        Map<String, JsonNode> result = new LinkedHashMap<>();
+        if (mangaIds.isEmpty()) return result;
+
         if (pythonAvailable) {
             try {
-                interpreter.set("manga_id", mangaId);
-                interpreter.exec(
-                    "stats = mangadex_api.get_manga_stats(manga_id)\n" +
-                    "import json\n" +
-                    "stats_json = json.dumps(stats) if stats else None"
-                );
+                String jsonStr;
+                synchronized (interpreter) {
+                    interpreter.set("manga_ids_json", mapper.writeValueAsString(mangaIds));
+                    interpreter.exec(
+                        "import json\n" +
+                        "stats = mangadex_api.get_manga_stats_batch(json.loads(manga_ids_json))\n" +
+                        "stats_json = json.dumps(stats) if stats else None"
+                    );
+                    jsonStr = interpreter.get("stats_json").toString();
+                }
 
-                String jsonStr = interpreter.get("stats_json").toString();
                 if (jsonStr != null && !jsonStr.isEmpty() && !jsonStr.equals("None")) {
-                    return mapper.readTree(jsonStr);
+                    mapper.readTree(jsonStr).fields()
+                            .forEachRemaining(entry -> result.put(entry.getKey(), entry.getValue()));
+                    return result;
                 }
             } catch (Exception e) {
-                err.println("Python get_manga_stats failed, falling back to Java: " + e.getMessage());
+                err.println("Python get_manga_stats_batch failed, falling back to Java: " + e.getMessage());
             }
         }
 
         // Fallback to Java implementation
-        String url = API + "/statistics/manga/" + mangaId;
-        JsonNode root = get(url);
+        for (List<String> chunk : chunk(mangaIds)) {
+            StringBuilder url = new StringBuilder(API + "/statistics/manga?");
+            for (String id : chunk) {
+                url.append("manga[]=").append(URLEncoder.encode(id, "UTF-8")).append('&');
+            }
+            url.setLength(url.length() - 1);
 
-        return root
-                .path("statistics")
-                .path(mangaId);
+            get(url.toString()).path("statistics").fields()
+                    .forEachRemaining(entry -> result.put(entry.getKey(), entry.getValue()));
+        }
+        return result;
     }
-}
 
+    private static List<List<String>> chunk(Collection<String> ids) {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < distinct.size(); i += MAX_IDS_PER_REQUEST) {
+            chunks.add(distinct.subList(i, Math.min(i + MAX_IDS_PER_REQUEST, distinct.size())));
+        }
+        return chunks;
+    }
+
+    private static <V> V awaitBatched(MicroBatcher<String, V> batcher, String id) throws Exception {
+        try {
+            return batcher.submit(id).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
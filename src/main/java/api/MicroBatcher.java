@@ -0,0 +1,108 @@
+package api;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects single-key lookups that arrive within a short window and resolves
+ * them with one batched call. Duplicate keys in the same window share a result.
+ *
+ * @param <K> key type (e.g. a manga ID)
+ * @param <V> value type
+ */
+public class MicroBatcher<K, V> {
+
+    private static final Logger logger = LogManager.getLogger(MicroBatcher.class);
+
+    /**
+     * Loads many keys at once. Keys missing from the returned map resolve to null.
+     */
+    @FunctionalInterface
+    public interface BatchLoader<K, V> {
+        Map<K, V> load(List<K> keys) throws Exception;
+    }
+
+    private final String name;
+    private final BatchLoader<K, V> loader;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler;
+
+    private Map<K, CompletableFuture<V>> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    public MicroBatcher(String name, BatchLoader<K, V> loader, long windowMillis, int maxBatchSize) {
+        this.name = name;
+        this.loader = loader;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "batcher-" + name);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Queue a key for the next batch.
+     * @param key The key to look up
+     * @return future completing with the value, or null if the batch had no entry for it
+     */
+    public CompletableFuture<V> submit(K key) {
+        synchronized (this) {
+            CompletableFuture<V> existing = pending.get(key);
+            if (existing != null) {
+                return existing;
+            }
+
+            CompletableFuture<V> future = new CompletableFuture<>();
+            pending.put(key, future);
+
+            if (pending.size() >= maxBatchSize) {
+                if (scheduledFlush != null) {
+                    scheduledFlush.cancel(false);
+                }
+                scheduledFlush = scheduler.schedule(this::flush, 0, TimeUnit.MILLISECONDS);
+            } else if (scheduledFlush == null) {
+                scheduledFlush = scheduler.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+            }
+            return future;
+        }
+    }
+
+    private void flush() {
+        Map<K, CompletableFuture<V>> batch;
+        synchronized (this) {
+            batch = pending;
+            pending = new LinkedHashMap<>();
+            scheduledFlush = null;
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<K> keys = new ArrayList<>(batch.keySet());
+        logger.debug("Batcher {} flushing {} key(s)", name, keys.size());
+        try {
+            Map<K, V> results = loader.load(keys);
+            for (Map.Entry<K, CompletableFuture<V>> entry : batch.entrySet()) {
+                entry.getValue().complete(results.get(entry.getKey()));
+            }
+        } catch (Exception e) {
+            logger.error("Batcher {} failed to load {} key(s): {}", name, keys.size(), e.getMessage());
+            for (CompletableFuture<V> future : batch.values()) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import model.ChapterManifest;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the pixel size of every page of a chapter version, so the reader can
+ * lay out the whole chapter before a single page has been downloaded. Like the
+ * manifest itself, sizes never change for a chapter hash and are kept on disk.
+ */
+public final class PageSizeCache {
+
+    private static final Logger logger = LogManager.getLogger(PageSizeCache.class);
+
+    private static final PageSizeCache INSTANCE = new PageSizeCache(
+            Paths.get(System.getProperty("user.home"), ".yomikomu", "cache", "page-sizes")
+    );
+
+    private final Path sizeDir;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<String, int[][]> sizes = new ConcurrentHashMap<>();
+
+    PageSizeCache(Path sizeDir) {
+        this.sizeDir = sizeDir;
+    }
+
+    /**
+     * Get the cache shared by all reader panels.
+     * @return PageSizeCache instance
+     */
+    public static PageSizeCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get the known page sizes of a chapter.
+     * @param manifest The chapter's manifest
+     * @return one {width, height} pair per page, {0, 0} where unknown
+     */
+    public int[][] getSizes(ChapterManifest manifest) {
+        int[][] known = sizes.get(manifest.hash());
+        if (known == null) {
+            known = read(manifest.hash());
+        }
+
+        int[][] result = new int[manifest.pageCount()][2];
+        if (known != null) {
+            for (int i = 0; i < Math.min(result.length, known.length); i++) {
+                if (known[i] != null && known[i].length == 2) {
+                    result[i] = known[i].clone();
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Remember the page sizes of a chapter in memory and on disk.
+     * @param manifest The chapter's manifest
+     * @param pageSizes one {width, height} pair per page, {0, 0} where unknown
+     */
+    public void putSizes(ChapterManifest manifest, int[][] pageSizes) {
+        int[][] previous = sizes.put(manifest.hash(), pageSizes);
+        if (Arrays.deepEquals(previous, pageSizes)) {
+            return;
+        }
+        try {
+            Files.createDirectories(sizeDir);
+            mapper.writeValue(sizeFile(manifest.hash()).toFile(), pageSizes);
+        } catch (IOException e) {
+            logger.error("Failed to persist page sizes for chapter {}", manifest.chapterId(), e);
+        }
+    }
+
+    private int[][] read(String hash) {
+        Path file = sizeFile(hash);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            int[][] known = mapper.readValue(file.toFile(), int[][].class);
+            sizes.put(hash, known);
+            return known;
+        } catch (IOException e) {
+            logger.warn("Discarding unreadable page sizes {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private Path sizeFile(String hash) {
+        return sizeDir.resolve(hash.replaceAll("[^A-Za-z0-9-]", "_") + ".json");
+    }
+}
@@ -0,0 +1,36 @@
+package exception;
+
+import java.io.IOException;
+
+/**
+ * Thrown when an HTTP request completes with a non-success status code.
+ * Keeps the status around so callers can react to specific failures
+ * (for example a 403 from an expired MangaDex@Home node).
+ */
+public class HttpStatusException extends IOException {
+
+    private final int statusCode;
+    private final String url;
+
+    public HttpStatusException(int statusCode, String url) {
+        super("HTTP " + statusCode + " for " + url);
+        this.statusCode = statusCode;
+        this.url = url;
+    }
+
+    /**
+     * Get the HTTP status code returned by the server.
+     * @return status code
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Get the URL that was requested.
+     * @return request URL
+     */
+    public String getUrl() {
+        return url;
+    }
+}
@@ -0,0 +1,54 @@
+package model;
+
+import java.util.List;
+
+/**
+ * The page list of a chapter as returned by /at-home/server.
+ * Immutable for a given chapter version (identified by its hash), unlike the
+ * at-home node base URL which expires after a few minutes.
+ */
+public record ChapterManifest(
+        String chapterId,
+        String hash,
+        List<String> data,
+        List<String> dataSaver
+) {
+    public int pageCount() {
+        return data.size();
+    }
+
+    /**
+     * Node-independent key for a page, stable across at-home base URL changes.
+     */
+    public String pageKey(int pageIndex) {
+        return "data/" + hash + "/" + data.get(pageIndex);
+    }
+
+    /**
+     * Full page URL on the given at-home node.
+     */
+    public String pageUrl(String baseUrl, int pageIndex) {
+        return baseUrl + "/" + pageKey(pageIndex);
+    }
+
+    /**
+     * Whether a page has a data-saver rendition (a smaller, more compressed copy).
+     */
+    public boolean hasPreview(int pageIndex) {
+        return dataSaver != null && pageIndex < dataSaver.size();
+    }
+
+    /**
+     * Node-independent key for a page's data-saver rendition.
+     */
+    public String previewKey(int pageIndex) {
+        return "data-saver/" + hash + "/" + dataSaver.get(pageIndex);
+    }
+
+    /**
+     * Data-saver page URL on the given at-home node.
+     */
+    public String previewUrl(String baseUrl, int pageIndex) {
+        return baseUrl + "/" + previewKey(pageIndex);
+    }
+}
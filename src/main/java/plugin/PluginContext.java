@@ -5,6 +5,7 @@ import bookmark.BookmarkStore;
 import reading.ReadingProgressStore;
 import recent.RecentMangasStore;
 import api.CacheManager;
+import reader.filter.PageFilters;
 
 import javax.swing.JMenuBar;
 import javax.swing.JMenu;
@@ -92,6 +93,15 @@ public class PluginContext {
     public PluginManager getPluginManager() {
         return pluginManager;
     }
+
+    /**
+     * Get the built-in page filters (tone, sharpening, grayscale, margin detection), for
+     * raster plugins that want to reuse them on the pixels they are given.
+     * @return PageFilters instance
+     */
+    public PageFilters getPageFilters() {
+        return PageFilters.getInstance();
+    }
     
     /**
      * Add a menu to the application's menu bar.
@@ -6,8 +6,18 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import javax.swing.JMenuItem;
+import java.awt.image.WritableRaster;
 import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 /**
@@ -17,6 +27,22 @@ import java.util.function.Consumer;
 public class PluginManager {
     
     private static final Logger logger = LogManager.getLogger(PluginManager.class);
+
+    // Longest one plugin may spend on one page before the page goes on without it
+    private static final long DEFAULT_PAGE_BUDGET_MILLIS = 2000;
+    // Plugins that overrun the budget this often are bypassed until they are enabled again
+    private static final int MAX_PAGE_TIMEOUTS = 3;
+    // Markers for runWithBudget outcomes other than a plugin's own result
+    private static final byte[] TIMED_OUT = new byte[0];
+    private static final byte[] FAILED = new byte[0];
+
+    /**
+     * Result of running a page through the image-processing chain.
+     * @param data the processed image data
+     * @param complete false if a plugin timed out, failed or was bypassed, so the result
+     *                 is not what the full chain would produce and should not be cached
+     */
+    public record ProcessedPage(byte[] data, boolean complete) {}
     
     private final Map<String, ShioriPlugin> plugins = new ConcurrentHashMap<>();
     private final Map<String, PluginDescriptor> descriptors = new ConcurrentHashMap<>();
@@ -24,6 +50,18 @@ public class PluginManager {
     private final Set<Consumer<Manga>> mangaCallbacks = ConcurrentHashMap.newKeySet();
     private final Set<Consumer<PluginContext.ChapterCallback>> chapterCallbacks = ConcurrentHashMap.newKeySet();
     private final Set<PluginContext.PageCallback> pageCallbacks = ConcurrentHashMap.newKeySet();
+    private final Map<String, AtomicInteger> pageTimeouts = new ConcurrentHashMap<>();
+    private final ExecutorService pageWorkers = Executors.newCachedThreadPool(new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "plugin-page-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    });
+    private volatile long pageBudgetMillis = DEFAULT_PAGE_BUDGET_MILLIS;
     private final PluginLoader loader;
     private boolean initialized = false;
     
@@ -146,6 +184,7 @@ public class PluginManager {
         }
         
         enabledPlugins.put(pluginId, true);
+        pageTimeouts.remove(pluginId);
         logger.info("Enabled plugin: {}", pluginId);
         
         // Re-initialize the plugin
@@ -193,6 +232,17 @@ public class PluginManager {
         return enabledPlugins.getOrDefault(pluginId, false);
     }
     
+    /**
+     * Check if a plugin overran the page time budget too often and is skipped for every
+     * page until it is enabled again.
+     * @param pluginId The plugin ID
+     * @return true if the plugin is bypassed for page processing
+     */
+    public boolean isBypassed(String pluginId) {
+        AtomicInteger timeouts = pageTimeouts.get(pluginId);
+        return timeouts != null && timeouts.get() >= MAX_PAGE_TIMEOUTS;
+    }
+
     /**
      * Notify all enabled plugins that a manga was loaded.
      * @param manga The loaded manga
@@ -222,6 +272,74 @@ public class PluginManager {
         }
     }
     
+    /**
+     * Get the enabled image-processing plugins that work on encoded page data, in the
+     * order pages run through them.
+     * @return List of plugins, sorted by ID
+     */
+    public List<ShioriPlugin> getPageProcessors() {
+        return getImageProcessors(false);
+    }
+
+    /**
+     * Get the enabled image-processing plugins that work on decoded pixels, in the
+     * order pages run through them.
+     * @return List of plugins, sorted by ID
+     */
+    public List<ShioriPlugin> getRasterProcessors() {
+        return getImageProcessors(true);
+    }
+
+    private List<ShioriPlugin> getImageProcessors(boolean raster) {
+        List<ShioriPlugin> processors = new ArrayList<>();
+        for (ShioriPlugin plugin : getEnabledPlugins()) {
+            if (plugin.getCapability() == PluginCapability.IMAGE_PROCESSING && plugin.isRasterProcessor() == raster) {
+                processors.add(plugin);
+            }
+        }
+        processors.sort(Comparator.comparing(ShioriPlugin::getId));
+        return processors;
+    }
+
+    /**
+     * Identify the current page-processing chain by plugin IDs and processing keys, for
+     * caching processed pages. Updating, reconfiguring or toggling a plugin changes the key.
+     * @return key of the chain, or null if nothing processes page data
+     */
+    public String getPageProcessingKey() {
+        List<String> parts = chainParts(getPageProcessors());
+        if (!pageCallbacks.isEmpty()) {
+            parts.add("callbacks=" + pageCallbacks.size());
+        }
+        return parts.isEmpty() ? null : String.join(",", parts);
+    }
+
+    /**
+     * Identify the current raster-processing chain by plugin IDs and processing keys, for
+     * caching decoded pages.
+     * @return key of the chain, or null if nothing processes decoded pages
+     */
+    public String getRasterProcessingKey() {
+        List<String> parts = chainParts(getRasterProcessors());
+        return parts.isEmpty() ? null : String.join(",", parts);
+    }
+
+    private static List<String> chainParts(List<ShioriPlugin> processors) {
+        List<String> parts = new ArrayList<>();
+        for (ShioriPlugin plugin : processors) {
+            parts.add(plugin.getId() + "@" + plugin.getProcessingKey());
+        }
+        return parts;
+    }
+
+    /**
+     * Set how long one plugin may take for one page.
+     * @param millis time budget in milliseconds
+     */
+    public void setPageTimeBudget(long millis) {
+        this.pageBudgetMillis = millis;
+    }
+
     /**
      * Process page data through enabled plugins.
      * @param imageData The raw image data
@@ -231,32 +349,115 @@ public class PluginManager {
      * @return Processed image data after all plugins
      */
     public byte[] processPage(byte[] imageData, int pageIndex, Chapter chapter, Manga manga) {
+        return processPageTimed(imageData, pageIndex, chapter, manga).data();
+    }
+
+    /**
+     * Process page data through the image-processing plugins and page callbacks, giving
+     * each at most the page time budget. A plugin that overruns it is skipped for this
+     * page, and after repeated overruns for every page until it is enabled again.
+     * Safe to call for several pages at once.
+     * @param imageData The raw image data
+     * @param pageIndex The page number (0-based)
+     * @param chapter The current chapter
+     * @param manga The current manga
+     * @return Processed image data, and whether every step of the chain ran
+     */
+    public ProcessedPage processPageTimed(byte[] imageData, int pageIndex, Chapter chapter, Manga manga) {
         byte[] result = imageData;
-        
-        for (ShioriPlugin plugin : getEnabledPlugins()) {
-            try {
-                byte[] processed = plugin.onPageLoaded(result, pageIndex);
-                if (processed != null) {
-                    result = processed;
+        boolean complete = true;
+
+        for (ShioriPlugin plugin : getPageProcessors()) {
+            AtomicInteger timeouts = pageTimeouts.computeIfAbsent(plugin.getId(), id -> new AtomicInteger());
+            if (timeouts.get() >= MAX_PAGE_TIMEOUTS) {
+                complete = false;
+                continue;
+            }
+            final byte[] input = result;
+            byte[] processed = runWithBudget(plugin.getId(), () -> plugin.onPageLoaded(input, pageIndex));
+            if (processed == TIMED_OUT) {
+                complete = false;
+                if (timeouts.incrementAndGet() == MAX_PAGE_TIMEOUTS) {
+                    logger.warn("Plugin {} is too slow for page processing and is bypassed until re-enabled", plugin.getId());
                 }
-            } catch (Exception e) {
-                logger.error("Plugin {} failed in onPageLoaded: {}", plugin.getId(), e.getMessage());
+            } else if (processed == FAILED) {
+                complete = false;
+            } else if (processed != null) {
+                result = processed;
             }
         }
-        
+
         // Also process through registered page callbacks
         for (PluginContext.PageCallback callback : pageCallbacks) {
+            final byte[] input = result;
+            byte[] processed = runWithBudget("page callback", () -> callback.accept(input, pageIndex, chapter, manga));
+            if (processed == TIMED_OUT || processed == FAILED) {
+                complete = false;
+            } else if (processed != null) {
+                result = processed;
+            }
+        }
+
+        return new ProcessedPage(result, complete && !Thread.currentThread().isInterrupted());
+    }
+
+    /**
+     * Run a decoded page through the raster-processing plugins, which modify it in place.
+     * The plugins run on the calling thread, since a step cannot be abandoned while it
+     * still writes to the shared pixels; one that overruns the page time budget is
+     * counted like a timed-out {@link #processPageTimed} step, and bypassed after
+     * repeated overruns.
+     * @param raster The decoded page
+     * @param pageIndex The page number (0-based)
+     * @return false if a plugin failed, leaving the pixels partly processed
+     */
+    public boolean processPageRaster(WritableRaster raster, int pageIndex) {
+        boolean complete = true;
+
+        for (ShioriPlugin plugin : getRasterProcessors()) {
+            AtomicInteger timeouts = pageTimeouts.computeIfAbsent(plugin.getId(), id -> new AtomicInteger());
+            if (timeouts.get() >= MAX_PAGE_TIMEOUTS) {
+                continue;
+            }
+            long start = System.nanoTime();
             try {
-                byte[] processed = callback.accept(result, pageIndex, chapter, manga);
-                if (processed != null) {
-                    result = processed;
-                }
+                plugin.onPageDecoded(raster, pageIndex);
             } catch (Exception e) {
-                logger.error("Page callback failed: {}", e.getMessage());
+                logger.error("Plugin {} failed in onPageDecoded: {}", plugin.getId(), e.getMessage());
+                complete = false;
+            }
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (millis > pageBudgetMillis) {
+                logger.warn("{} took {} ms for page {}, over the {} ms page budget", plugin.getId(), millis, pageIndex + 1, pageBudgetMillis);
+                if (timeouts.incrementAndGet() == MAX_PAGE_TIMEOUTS) {
+                    logger.warn("Plugin {} is too slow for page processing and is bypassed until re-enabled", plugin.getId());
+                }
             }
         }
-        
-        return result;
+        return complete;
+    }
+
+    /**
+     * Run one step of the chain on a plugin worker thread, waiting at most the page budget.
+     * @return the step's result, or TIMED_OUT / FAILED
+     */
+    private byte[] runWithBudget(String name, Callable<byte[]> step) {
+        Future<byte[]> future = pageWorkers.submit(step);
+        try {
+            return future.get(pageBudgetMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            logger.warn("{} exceeded the {} ms page budget, page shown without it", name, pageBudgetMillis);
+            return TIMED_OUT;
+        } catch (ExecutionException e) {
+            logger.error("Plugin {} failed in onPageLoaded: {}", name, e.getCause().getMessage());
+            return FAILED;
+        } catch (InterruptedException e) {
+            // The page load was cancelled; keep the flag for the caller
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return FAILED;
+        }
     }
     
     /**
@@ -335,6 +536,7 @@ public class PluginManager {
         mangaCallbacks.clear();
         chapterCallbacks.clear();
         pageCallbacks.clear();
+        pageTimeouts.clear();
         
         initialized = false;
         logger.info("Plugin system shut down");
@@ -3,6 +3,8 @@ package plugin;
 import model.Manga;
 import model.Chapter;
 
+import java.awt.image.WritableRaster;
+
 /**
  * Main interface for Shiori plugins.
  * All plugins must implement this interface to be loaded by the application.
@@ -66,6 +68,8 @@ public interface ShioriPlugin {
     
     /**
      * Called for each page image loaded. Can be used to transform images.
+     * Only called for IMAGE_PROCESSING plugins, on a background thread and for several
+     * pages at once; a call that takes longer than the page time budget is abandoned.
      * @param imageData The raw image data
      * @param pageIndex The page number (0-based)
      * @return Modified image data, or null to use original
@@ -73,6 +77,35 @@ public interface ShioriPlugin {
     default byte[] onPageLoaded(byte[] imageData, int pageIndex) {
         return imageData;
     }
+
+    /**
+     * Whether this image-processing plugin works on decoded pixels. Such plugins get
+     * {@link #onPageDecoded} instead of {@link #onPageLoaded}: the page is decoded once
+     * and every raster plugin modifies the same pixels in place, with no re-encoding.
+     * @return true to receive pages as rasters
+     */
+    default boolean isRasterProcessor() {
+        return false;
+    }
+
+    /**
+     * Called for each decoded page of a raster processor; modify the pixels in place.
+     * The raster has one band (gray pages) or three (RGB), at the resolution the page is
+     * displayed at, and may be a horizontal band of a very tall page. Called on a
+     * background thread and for several pages at once.
+     * @param raster The page's pixels
+     * @param pageIndex The page number (0-based)
+     */
+    default void onPageDecoded(WritableRaster raster, int pageIndex) {}
+
+    /**
+     * Identify what this plugin's page processing produces, for caching processed pages.
+     * Plugins with settings that change their output should include the settings.
+     * @return processing key, the version by default
+     */
+    default String getProcessingKey() {
+        return getVersion();
+    }
     
     /**
      * Called when reading a chapter is complete.
@@ -0,0 +1,20 @@
+package reader;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * A page as it comes out of the decode stage. The full-resolution size is always
+ * known (from the image header); the pixels are only present if the page was near
+ * the viewport, and may have been decoded with source subsampling.
+ * A size of 0x0 means the page could not be loaded.
+ */
+public record DecodedPage(int index, int width, int height, BufferedImage image, int subsampling) {
+
+    public static DecodedPage failed(int index) {
+        return new DecodedPage(index, 0, 0, null, 1);
+    }
+
+    public boolean isFailed() {
+        return width <= 0 || height <= 0;
+    }
+}
@@ -0,0 +1,92 @@
+package reader;
+
+import javax.imageio.ImageReader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One attempt at loading a chapter into the reader.
+ * Starting a new load cancels the previous session, which interrupts its
+ * queued and running fetch tasks (aborting their HTTP exchanges) and aborts
+ * any image reader still decoding for it. Results that still trickle in
+ * afterwards can be recognised as stale and dropped.
+ */
+public class LoadSession {
+
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+
+    private final long id = NEXT_ID.incrementAndGet();
+    private final String label;
+    private final Set<Future<?>> tasks = ConcurrentHashMap.newKeySet();
+    private final Set<ImageReader> readers = ConcurrentHashMap.newKeySet();
+    private final LoadTimeline timeline = new LoadTimeline();
+    private volatile boolean cancelled;
+
+    public LoadSession(String label) {
+        this.label = label;
+    }
+
+    /**
+     * @return per-stage timings of this load
+     */
+    public LoadTimeline getTimeline() {
+        return timeline;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Cancel everything this session still has in flight. Safe to call more than once.
+     */
+    public void cancel() {
+        cancelled = true;
+        for (Future<?> task : tasks) {
+            task.cancel(true);
+        }
+        for (ImageReader reader : readers) {
+            reader.abort();
+        }
+    }
+
+    /**
+     * Track a task so that cancelling the session interrupts it.
+     * A task registered after cancellation is cancelled straight away.
+     */
+    public void track(Future<?> task) {
+        tasks.add(task);
+        if (cancelled) {
+            task.cancel(true);
+        }
+    }
+
+    public void untrack(Future<?> task) {
+        tasks.remove(task);
+    }
+
+    /**
+     * Track an image reader for the duration of a decode so cancellation can abort it.
+     */
+    public void attach(ImageReader reader) {
+        readers.add(reader);
+        if (cancelled) {
+            reader.abort();
+        }
+    }
+
+    public void detach(ImageReader reader) {
+        readers.remove(reader);
+    }
+
+    @Override
+    public String toString() {
+        return "LoadSession{" + id + ", " + label + (cancelled ? ", cancelled" : "") + "}";
+    }
+}
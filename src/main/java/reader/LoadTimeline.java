@@ -0,0 +1,243 @@
+package reader;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Where the time of one chapter load went: chapter-level stages (API call, layout, ...)
+ * and, per page, the fetch with its size and cache source, plugin processing, decode,
+ * high-quality scale and the first paint.
+ * <p>
+ * Each page stage is recorded the first time it runs for the page, which is what the
+ * reader waited on; later re-decodes after eviction or zoom are not counted. Times are
+ * in nanoseconds since the load started. Recording is cheap and thread-safe, so it is
+ * always on; only showing it is opt-in.
+ */
+public class LoadTimeline {
+
+    public enum Source { MEMORY, DISK, NETWORK }
+
+    /**
+     * A chapter-level stage.
+     */
+    public record Stage(String name, long start, long end) {
+        public long millis() {
+            return (end - start) / 1_000_000;
+        }
+    }
+
+    /**
+     * A page's timings; -1 (or null) for stages that have not run yet.
+     */
+    public record PageTiming(int page, Source source, long bytes, long fetchStart, long fetchEnd,
+                             long processNanos, long decodeStart, long decodeEnd, long scaleNanos, long paintedAt) {
+
+        public long fetchMillis() {
+            return fetchStart < 0 ? -1 : (fetchEnd - fetchStart) / 1_000_000;
+        }
+
+        public long decodeMillis() {
+            return decodeStart < 0 ? -1 : (decodeEnd - decodeStart) / 1_000_000;
+        }
+
+        public long processMillis() {
+            return processNanos < 0 ? -1 : processNanos / 1_000_000;
+        }
+
+        public long scaleMillis() {
+            return scaleNanos < 0 ? -1 : scaleNanos / 1_000_000;
+        }
+
+        public long paintedAtMillis() {
+            return paintedAt < 0 ? -1 : paintedAt / 1_000_000;
+        }
+    }
+
+    /**
+     * Totals over the pages of a load.
+     * @param sources pages by where their data came from, indexed by {@link Source#ordinal()}
+     * @param bytes total page data
+     * @param meanFetchMillis mean fetch time of downloaded pages, -1 if none
+     * @param meanDecodeMillis mean decode time, -1 if none
+     * @param meanScaleMillis mean scale time, -1 if none
+     * @param painted pages painted so far
+     * @param firstPaintMillis time to the first painted page, -1 if none
+     */
+    public record Summary(int[] sources, long bytes, long meanFetchMillis, long meanDecodeMillis,
+                          long meanScaleMillis, int painted, long firstPaintMillis) {}
+
+    private final long origin = System.nanoTime();
+    private final List<Stage> stages = new CopyOnWriteArrayList<>();
+    private final Map<Integer, Entry> pages = new ConcurrentHashMap<>();
+
+    /**
+     * Record a chapter-level stage that started at the given {@link System#nanoTime()} and ends now.
+     */
+    public void stage(String name, long startNanoTime) {
+        stages.add(new Stage(name, startNanoTime - origin, System.nanoTime() - origin));
+    }
+
+    /**
+     * A page's data was read or downloaded; the fetch started at the given {@link System#nanoTime()}.
+     */
+    public void fetched(int page, long startNanoTime, long bytes, Source source) {
+        long end = System.nanoTime() - origin;
+        Entry entry = entry(page);
+        synchronized (entry) {
+            if (entry.fetchStart >= 0) return;
+            entry.fetchStart = startNanoTime - origin;
+            entry.fetchEnd = end;
+            entry.bytes = bytes;
+            entry.source = source;
+        }
+    }
+
+    /**
+     * The byte plugins processed a page's encoded data, taking the given time.
+     */
+    public void processedBytes(int page, long nanos) {
+        Entry entry = entry(page);
+        synchronized (entry) {
+            if (entry.byteProcessNanos < 0) entry.byteProcessNanos = nanos;
+        }
+    }
+
+    /**
+     * The raster plugins processed a page's (or its first tile's) decoded pixels, taking the given time.
+     */
+    public void processedRaster(int page, long nanos) {
+        Entry entry = entry(page);
+        synchronized (entry) {
+            if (entry.rasterProcessNanos < 0) entry.rasterProcessNanos = nanos;
+        }
+    }
+
+    /**
+     * A page (or its first tile) was decoded, starting at the given {@link System#nanoTime()}.
+     */
+    public void decoded(int page, long startNanoTime) {
+        long end = System.nanoTime() - origin;
+        Entry entry = entry(page);
+        synchronized (entry) {
+            if (entry.decodeStart >= 0) return;
+            entry.decodeStart = startNanoTime - origin;
+            entry.decodeEnd = end;
+        }
+    }
+
+    /**
+     * A page was scaled to its display size, starting at the given {@link System#nanoTime()}.
+     */
+    public void scaled(int page, long startNanoTime) {
+        long nanos = System.nanoTime() - startNanoTime;
+        Entry entry = entry(page);
+        synchronized (entry) {
+            if (entry.scaleNanos < 0) entry.scaleNanos = nanos;
+        }
+    }
+
+    /**
+     * A page's pixels were painted; only the first paint counts.
+     */
+    public void painted(int page) {
+        Entry entry = pages.get(page);
+        if (entry != null && entry.paintedAt >= 0) return;
+        long now = System.nanoTime() - origin;
+        entry = entry(page);
+        synchronized (entry) {
+            if (entry.paintedAt < 0) entry.paintedAt = now;
+        }
+    }
+
+    public List<Stage> getStages() {
+        return List.copyOf(stages);
+    }
+
+    /**
+     * @return the timings of every page something was recorded for, by page index
+     */
+    public List<PageTiming> getPages() {
+        List<PageTiming> timings = new ArrayList<>();
+        for (Map.Entry<Integer, Entry> e : pages.entrySet()) {
+            timings.add(e.getValue().snapshot(e.getKey()));
+        }
+        timings.sort(Comparator.comparingInt(PageTiming::page));
+        return timings;
+    }
+
+    /**
+     * @return a page's timings, or null if nothing was recorded for it
+     */
+    public PageTiming getPage(int page) {
+        Entry entry = pages.get(page);
+        return entry != null ? entry.snapshot(page) : null;
+    }
+
+    public Summary summarize() {
+        int[] sources = new int[Source.values().length];
+        long bytes = 0;
+        long fetch = 0, fetches = 0, decode = 0, decodes = 0, scale = 0, scales = 0;
+        int painted = 0;
+        long firstPaint = -1;
+        for (PageTiming page : getPages()) {
+            if (page.source() != null) {
+                sources[page.source().ordinal()]++;
+                bytes += page.bytes();
+            }
+            if (page.source() == Source.NETWORK) {
+                fetch += page.fetchMillis();
+                fetches++;
+            }
+            if (page.decodeStart() >= 0) {
+                decode += page.decodeMillis();
+                decodes++;
+            }
+            if (page.scaleNanos() >= 0) {
+                scale += page.scaleMillis();
+                scales++;
+            }
+            if (page.paintedAt() >= 0) {
+                painted++;
+                firstPaint = firstPaint < 0 ? page.paintedAtMillis() : Math.min(firstPaint, page.paintedAtMillis());
+            }
+        }
+        return new Summary(sources, bytes, fetches > 0 ? fetch / fetches : -1, decodes > 0 ? decode / decodes : -1,
+                scales > 0 ? scale / scales : -1, painted, firstPaint);
+    }
+
+    /**
+     * @return nanoseconds since the load started
+     */
+    public long elapsed() {
+        return System.nanoTime() - origin;
+    }
+
+    private Entry entry(int page) {
+        return pages.computeIfAbsent(page, p -> new Entry());
+    }
+
+    private static final class Entry {
+        Source source;
+        long bytes = -1;
+        long fetchStart = -1;
+        long fetchEnd = -1;
+        long byteProcessNanos = -1;
+        long rasterProcessNanos = -1;
+        long decodeStart = -1;
+        long decodeEnd = -1;
+        long scaleNanos = -1;
+        volatile long paintedAt = -1;
+
+        synchronized PageTiming snapshot(int page) {
+            // Plugin time adds up over the byte and raster chains
+            long processNanos = byteProcessNanos < 0 && rasterProcessNanos < 0 ? -1
+                    : Math.max(0, byteProcessNanos) + Math.max(0, rasterProcessNanos);
+            return new PageTiming(page, source, bytes, fetchStart, fetchEnd, processNanos,
+                    decodeStart, decodeEnd, scaleNanos, paintedAt);
+        }
+    }
+}
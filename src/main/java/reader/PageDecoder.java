@@ -0,0 +1,187 @@
+package reader;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Decodes encoded page bytes (JPEG/PNG/...) with an explicit ImageReader,
+ * so that a decode belonging to a cancelled load session can be aborted.
+ * <p>
+ * Pages shown below their native size are decoded with source subsampling,
+ * so decode time and memory follow the displayed pixels rather than the source.
+ * With a {@link PixelPool}, pages are decoded straight into pooled images.
+ */
+public class PageDecoder {
+
+    private final PixelPool pool;
+
+    public PageDecoder() {
+        this(null);
+    }
+
+    /**
+     * @param pool pool to decode into, or null to let the reader allocate
+     */
+    public PageDecoder(PixelPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Largest subsampling step that still yields at least the target width.
+     * @param sourceWidth width of the encoded image
+     * @param targetWidth width in device pixels the page is displayed at
+     * @return subsampling factor, 1 for none
+     */
+    public static int subsamplingFor(int sourceWidth, int targetWidth) {
+        if (sourceWidth <= 0 || targetWidth <= 0) {
+            return 1;
+        }
+        return Math.max(1, sourceWidth / targetWidth);
+    }
+
+    /**
+     * Read a page's pixel size from its header without decoding the pixels.
+     * @param data encoded image bytes
+     * @return the size, or null if the data is not a supported image
+     */
+    public Dimension readSize(byte[] data) throws IOException {
+        return readSize(new ByteArrayInputStream(data));
+    }
+
+    /**
+     * Read a page's pixel size from the header of a file, reading only the first few kilobytes.
+     * @param file encoded image file
+     * @return the size, or null if the file is not a supported image
+     */
+    public Dimension readSize(File file) throws IOException {
+        return readSize((Object) file);
+    }
+
+    private Dimension readSize(Object input) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(input)) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                return new Dimension(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Decode a page.
+     * @param data encoded image bytes
+     * @param session load session the decode belongs to, used for cancellation
+     * @return the decoded image, or null if the data is not a supported image
+     * @throws CancellationException if the session was cancelled
+     */
+    public BufferedImage decode(byte[] data, LoadSession session) throws IOException {
+        return decode(data, session, 1, null);
+    }
+
+    /**
+     * Decode a page, or part of it, at reduced resolution.
+     * @param data encoded image bytes
+     * @param session load session the decode belongs to, used for cancellation
+     * @param subsampling keep every n-th pixel in both directions, 1 for full resolution
+     * @param region source region to decode, or null for the whole image
+     * @return the decoded image, or null if the data is not a supported image. With a pool,
+     *         the image holds one pool reference for the caller.
+     * @throws CancellationException if the session was cancelled
+     */
+    public BufferedImage decode(byte[] data, LoadSession session, int subsampling, Rectangle region) throws IOException {
+        if (session.isCancelled()) {
+            throw new CancellationException(session + " cancelled");
+        }
+
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            session.attach(reader);
+            try {
+                reader.setInput(in, true, true);
+                ImageReadParam param = reader.getDefaultReadParam();
+                if (subsampling > 1) {
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                }
+                if (region != null) {
+                    param.setSourceRegion(region);
+                }
+                BufferedImage destination = pooledDestination(reader, subsampling, region);
+                param.setDestination(destination);
+
+                BufferedImage image;
+                try {
+                    image = reader.read(0, param);
+                } catch (IOException | RuntimeException e) {
+                    release(destination);
+                    throw e;
+                }
+                if (session.isCancelled()) {
+                    // abort() makes read() return a partially decoded image
+                    release(destination);
+                    throw new CancellationException(session + " cancelled");
+                }
+                return image;
+            } finally {
+                session.detach(reader);
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Borrow an image of exactly the decoded size and the reader's native layout, or null without a pool.
+     */
+    private BufferedImage pooledDestination(ImageReader reader, int subsampling, Rectangle region) throws IOException {
+        if (pool == null) {
+            return null;
+        }
+        Iterator<ImageTypeSpecifier> types = reader.getImageTypes(0);
+        if (!types.hasNext()) {
+            return null;
+        }
+
+        Rectangle source = new Rectangle(reader.getWidth(0), reader.getHeight(0));
+        if (region != null) {
+            source = source.intersection(region);
+        }
+        int step = Math.max(1, subsampling);
+        int width = (source.width + step - 1) / step;
+        int height = (source.height + step - 1) / step;
+        if (width <= 0 || height <= 0) {
+            return null;
+        }
+        return pool.acquire(types.next(), width, height);
+    }
+
+    private void release(BufferedImage destination) {
+        if (pool != null && destination != null) {
+            pool.release(destination);
+        }
+    }
+}
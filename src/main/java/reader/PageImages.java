@@ -0,0 +1,182 @@
+package reader;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.WritableRaster;
+import javax.imageio.ImageTypeSpecifier;
+
+/**
+ * Conversions of decoded pages into formats that are cheap to keep and to draw.
+ * <p>
+ * Manga pages are opaque and mostly monochrome, but JPEG and PNG decoders hand back
+ * whatever layout the file had (3-byte BGR, ARGB with an unused alpha channel, ...),
+ * which Swing cannot blit with its fast loops. Monochrome pages are stored as one byte
+ * per pixel; everything else goes into the screen's compatible opaque format.
+ */
+public final class PageImages {
+
+    // Largest channel difference still considered gray (JPEG chroma noise)
+    private static final int GRAY_TOLERANCE = 12;
+    // Roughly this many pixels are sampled to classify a page
+    private static final int GRAY_SAMPLES = 16_384;
+
+    private PageImages() {}
+
+    /**
+     * Convert a decoded page into its display format.
+     * @param image decoded page
+     * @param configuration screen to optimise for, or null when unknown
+     * @return the page as TYPE_BYTE_GRAY if it is monochrome, otherwise an opaque
+     *         screen-compatible image; the input itself if it already is one
+     */
+    public static BufferedImage toDisplayFormat(BufferedImage image, GraphicsConfiguration configuration) {
+        return toDisplayFormat(image, configuration, null);
+    }
+
+    /**
+     * Convert a decoded page into its display format, allocating from a pool.
+     * If a new image is returned, the caller's pool reference to the input is released.
+     * @param pool pool to allocate from, or null
+     */
+    public static BufferedImage toDisplayFormat(BufferedImage image, GraphicsConfiguration configuration, PixelPool pool) {
+        if (image.getType() == BufferedImage.TYPE_BYTE_GRAY) {
+            return image;
+        }
+
+        BufferedImage converted;
+        if (isGrayscale(image)) {
+            converted = toGray(image, pool);
+        } else if (image.getTransparency() == Transparency.OPAQUE && isCompatible(image, configuration)) {
+            return image;
+        } else {
+            converted = createOpaque(image.getWidth(), image.getHeight(), configuration, pool);
+            Graphics2D g2d = converted.createGraphics();
+            // Transparent areas of PNG pages are shown on white, like the paper they stand for
+            g2d.drawImage(image, 0, 0, Color.WHITE, null);
+            g2d.dispose();
+        }
+
+        if (pool != null) {
+            pool.release(image);
+        }
+        return converted;
+    }
+
+    /**
+     * Create an image to scale a page into, in the same family as the source:
+     * byte gray for monochrome pages, the screen's opaque format otherwise.
+     * @param pool pool to allocate from, or null
+     */
+    public static BufferedImage createTarget(BufferedImage source, int width, int height,
+                                             GraphicsConfiguration configuration, PixelPool pool) {
+        if (source.getType() == BufferedImage.TYPE_BYTE_GRAY) {
+            return allocate(ImageTypeSpecifier.createFromBufferedImageType(BufferedImage.TYPE_BYTE_GRAY), width, height, pool);
+        }
+        return createOpaque(width, height, configuration, pool);
+    }
+
+    /**
+     * Copy a band of rows of a page into an image of its own, in the same format.
+     * @param pool pool to allocate from, or null
+     */
+    public static BufferedImage copyRows(BufferedImage image, int top, int height,
+                                         GraphicsConfiguration configuration, PixelPool pool) {
+        int width = image.getWidth();
+        BufferedImage band = createTarget(image, width, height, configuration, pool);
+        band.getRaster().setDataElements(0, 0, image.getRaster().createChild(0, top, width, height, 0, 0, null));
+        return band;
+    }
+
+    /**
+     * Whether every sampled pixel has (nearly) equal red, green and blue.
+     * A handful of outliers is tolerated for JPEG artefacts around edges.
+     */
+    public static boolean isGrayscale(BufferedImage image) {
+        if (image.getColorModel().getNumColorComponents() == 1) {
+            return true;
+        }
+
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int step = Math.max(1, (int) Math.sqrt((double) width * height / GRAY_SAMPLES));
+        int[] row = new int[width];
+        int sampled = 0;
+        int colored = 0;
+
+        for (int y = 0; y < height; y += step) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int x = 0; x < width; x += step) {
+                int rgb = row[x];
+                int r = (rgb >> 16) & 0xff;
+                int g = (rgb >> 8) & 0xff;
+                int b = rgb & 0xff;
+                sampled++;
+                if (Math.abs(r - g) > GRAY_TOLERANCE || Math.abs(g - b) > GRAY_TOLERANCE || Math.abs(r - b) > GRAY_TOLERANCE) {
+                    colored++;
+                }
+            }
+        }
+        return colored <= sampled / 1000;
+    }
+
+    /**
+     * Heap taken by the pixels of an image.
+     */
+    public static long sizeInBytes(BufferedImage image) {
+        DataBuffer buffer = image.getRaster().getDataBuffer();
+        return (long) buffer.getSize() * buffer.getNumBanks() * DataBuffer.getDataTypeSize(buffer.getDataType()) / 8;
+    }
+
+    private static BufferedImage toGray(BufferedImage image, PixelPool pool) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        BufferedImage gray = allocate(ImageTypeSpecifier.createFromBufferedImageType(BufferedImage.TYPE_BYTE_GRAY), width, height, pool);
+        // Written row by row through the raster: a pooled image may be a view into a wider one
+        WritableRaster raster = gray.getRaster();
+        boolean alpha = image.getColorModel().hasAlpha();
+        int[] row = new int[width];
+        byte[] luma = new byte[width];
+
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int x = 0; x < width; x++) {
+                int rgb = row[x];
+                // Channels are nearly equal, so a cheap luma approximation is enough
+                int value = (((rgb >> 16) & 0xff) + 2 * ((rgb >> 8) & 0xff) + (rgb & 0xff)) >> 2;
+                if (alpha) {
+                    // Composited onto white, as for colour pages (getRGB is not premultiplied)
+                    int a = rgb >>> 24;
+                    value = (value * a + 255 * (255 - a) + 127) / 255;
+                }
+                luma[x] = (byte) value;
+            }
+            raster.setDataElements(0, y, width, 1, luma);
+        }
+        return gray;
+    }
+
+    private static boolean isCompatible(BufferedImage image, GraphicsConfiguration configuration) {
+        if (configuration == null) {
+            return image.getType() == BufferedImage.TYPE_INT_RGB;
+        }
+        return configuration.getColorModel(Transparency.OPAQUE).equals(image.getColorModel());
+    }
+
+    private static BufferedImage createOpaque(int width, int height, GraphicsConfiguration configuration, PixelPool pool) {
+        if (configuration == null) {
+            return allocate(ImageTypeSpecifier.createFromBufferedImageType(BufferedImage.TYPE_INT_RGB), width, height, pool);
+        }
+        ColorModel colorModel = configuration.getColorModel(Transparency.OPAQUE);
+        ImageTypeSpecifier type = new ImageTypeSpecifier(colorModel, colorModel.createCompatibleSampleModel(1, 1));
+        return allocate(type, width, height, pool);
+    }
+
+    private static BufferedImage allocate(ImageTypeSpecifier type, int width, int height, PixelPool pool) {
+        return pool != null ? pool.acquire(type, width, height) : type.createBufferedImage(width, height);
+    }
+}
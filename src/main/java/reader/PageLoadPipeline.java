@@ -0,0 +1,220 @@
+package reader;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Loads the pages of a chapter in two concurrent stages and hands them out in page order.
+ * <ol>
+ *   <li>fetch: bounded pool for cache reads and downloads (I/O-bound)</li>
+ *   <li>decode: one thread per core (CPU-bound)</li>
+ * </ol>
+ * Pages that finish early are held back until every page before them has been
+ * published, so the sink always sees page 0, 1, 2, ... regardless of which
+ * download was fastest. Total load time approaches that of the slowest page
+ * rather than the sum of all of them.
+ * <p>
+ * Every stage task is registered with the {@link LoadSession}; cancelling the
+ * session interrupts running fetches, drops queued ones and stops publication.
+ * <p>
+ * By default every page is fetched right away. A gated pipeline only fetches pages
+ * that have been admitted with {@link #admit(int)} or {@link #admitUpTo(int)}, so the
+ * caller can keep downloads a bounded distance ahead of the reader.
+ *
+ * @param <T> decoded page type
+ */
+public class PageLoadPipeline<T> {
+
+    private static final Logger logger = LogManager.getLogger(PageLoadPipeline.class);
+
+    /**
+     * Produces the encoded bytes of a page (from cache or network).
+     */
+    @FunctionalInterface
+    public interface Fetcher {
+        byte[] fetch(int pageIndex) throws Exception;
+    }
+
+    /**
+     * Turns encoded bytes into a displayable page. May return null for undecodable data.
+     */
+    @FunctionalInterface
+    public interface Decoder<T> {
+        T decode(int pageIndex, byte[] data) throws Exception;
+    }
+
+    /**
+     * Receives pages strictly in page order. Exactly one of page/error is set,
+     * except that page may be null without an error if the decoder returned null.
+     */
+    @FunctionalInterface
+    public interface Sink<T> {
+        void accept(int pageIndex, T page, Throwable error);
+    }
+
+    private record Outcome<T>(T page, Throwable error) {}
+
+    private final LoadSession session;
+    private final int pageCount;
+    private final Fetcher fetcher;
+    private final Decoder<T> decoder;
+    private final Sink<T> sink;
+    private final List<CompletableFuture<Void>> admissions;
+    private final List<CompletableFuture<?>> loads;
+    private volatile boolean gated;
+
+    public PageLoadPipeline(LoadSession session, int pageCount, Fetcher fetcher, Decoder<T> decoder, Sink<T> sink) {
+        this.session = session;
+        this.pageCount = pageCount;
+        this.fetcher = fetcher;
+        this.decoder = decoder;
+        this.sink = sink;
+        this.admissions = new ArrayList<>(pageCount);
+        this.loads = new ArrayList<>(pageCount);
+        for (int i = 0; i < pageCount; i++) {
+            admissions.add(new CompletableFuture<>());
+        }
+    }
+
+    /**
+     * Only fetch pages once they are admitted. Must be called before {@link #start()}.
+     * @return this pipeline
+     */
+    public PageLoadPipeline<T> gated() {
+        this.gated = true;
+        return this;
+    }
+
+    /**
+     * Allow a page to be fetched. Safe to call from any thread, any number of times.
+     */
+    public void admit(int pageIndex) {
+        if (pageIndex >= 0 && pageIndex < pageCount) {
+            admissions.get(pageIndex).complete(null);
+        }
+    }
+
+    /**
+     * Allow every page up to and including the given one to be fetched.
+     */
+    public void admitUpTo(int lastPageIndex) {
+        for (int i = Math.min(lastPageIndex, pageCount - 1); i >= 0; i--) {
+            admit(i);
+        }
+    }
+
+    /**
+     * Queue every page and return immediately.
+     * @return future that completes once the last page has been handed to the sink,
+     *         or every page has been dropped because the session was cancelled
+     */
+    public CompletableFuture<Void> start() {
+        CompletableFuture<Void> published = CompletableFuture.completedFuture(null);
+        if (!gated) {
+            admitUpTo(pageCount - 1);
+        }
+
+        for (int i = 0; i < pageCount; i++) {
+            final int index = i;
+            CompletableFuture<Outcome<T>> page = admissions.get(index)
+                    .thenCompose(admitted -> session.isCancelled()
+                            ? CompletableFuture.<T>failedFuture(new CancellationException(session + " cancelled"))
+                            : loadPage(session, index, fetcher, decoder))
+                    .handle((decoded, error) -> new Outcome<>(decoded, unwrap(error)));
+            loads.add(page);
+
+            // Chaining on the previous page keeps publication in order and buffers
+            // pages that complete out of order
+            published = published.thenCombine(page, (ignored, outcome) -> {
+                if (!session.isCancelled()) {
+                    publish(index, outcome);
+                }
+                return null;
+            });
+        }
+        return published;
+    }
+
+    /**
+     * For a gated pipeline, whose last pages may never be admitted: a future that completes
+     * once every page admitted so far has been fetched and decoded, or has failed. Pages
+     * admitted later are not waited for. Such pages may still be held back until the pages
+     * before them are admitted and published.
+     * Must be called after {@link #start()}.
+     */
+    public CompletableFuture<Void> admittedLoaded() {
+        List<CompletableFuture<?>> admitted = new ArrayList<>();
+        for (int i = 0; i < loads.size(); i++) {
+            if (admissions.get(i).isDone()) {
+                admitted.add(loads.get(i));
+            }
+        }
+        return CompletableFuture.allOf(admitted.toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Run a single page through the fetch and decode stages, outside of a full chapter load
+     * (e.g. to decode a page again when it scrolls back into view).
+     */
+    public static <T> CompletableFuture<T> loadPage(LoadSession session, int index, Fetcher fetcher, Decoder<T> decoder) {
+        return submit(session, ReaderExecutors.fetchPool(), () -> fetcher.fetch(index))
+                .thenCompose(data -> submit(session, ReaderExecutors.decodePool(), () -> decoder.decode(index, data)));
+    }
+
+    /**
+     * Run one stage task on a pool as an interruptible, session-tracked task.
+     * Unlike CompletableFuture.supplyAsync, cancelling it interrupts the worker thread.
+     */
+    private static <R> CompletableFuture<R> submit(LoadSession session, ExecutorService pool, Callable<R> work) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        FutureTask<R> task = new FutureTask<>(() -> {
+            if (session.isCancelled()) {
+                throw new CancellationException(session + " cancelled");
+            }
+            return work.call();
+        }) {
+            @Override
+            protected void done() {
+                session.untrack(this);
+                try {
+                    result.complete(get());
+                } catch (CancellationException e) {
+                    result.completeExceptionally(e);
+                } catch (ExecutionException e) {
+                    result.completeExceptionally(e.getCause());
+                } catch (InterruptedException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        };
+        session.track(task);
+        pool.execute(task);
+        return result;
+    }
+
+    private void publish(int index, Outcome<T> outcome) {
+        try {
+            sink.accept(index, outcome.page(), outcome.error());
+        } catch (Exception e) {
+            // A failing sink must not stall the pages after it
+            logger.error("Page sink failed for page {}: {}", index, e.getMessage());
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
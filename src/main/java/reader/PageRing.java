@@ -0,0 +1,89 @@
+package reader;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fixed-size ring of per-page values for a window that moves through a chapter.
+ * <p>
+ * A page's slot is its index modulo the capacity, so any window of consecutive pages
+ * no longer than the capacity maps to distinct slots, and moving the window by one
+ * page reuses exactly the slot of the page that fell out. Memory is bounded by the
+ * capacity regardless of the chapter length.
+ * <p>
+ * Not thread-safe; the paged reader uses it from the EDT only.
+ *
+ * @param <T> value kept per page
+ */
+public class PageRing<T> {
+
+    private final Object[] values;
+    private final int[] pages;
+
+    public PageRing(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.values = new Object[capacity];
+        this.pages = new int[capacity];
+        Arrays.fill(pages, -1);
+    }
+
+    public int capacity() {
+        return values.length;
+    }
+
+    /**
+     * @return the value kept for a page, or null if its slot holds nothing or another page
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int pageIndex) {
+        if (pageIndex < 0) return null;
+        int slot = pageIndex % values.length;
+        return pages[slot] == pageIndex ? (T) values[slot] : null;
+    }
+
+    /**
+     * Keep a value for a page in its slot.
+     * @return the value the slot held before (for this or another page), or null
+     */
+    @SuppressWarnings("unchecked")
+    public T put(int pageIndex, T value) {
+        int slot = pageIndex % values.length;
+        T previous = (T) values[slot];
+        values[slot] = value;
+        pages[slot] = pageIndex;
+        return previous;
+    }
+
+    /**
+     * Drop the values of every page outside a range.
+     * @return the dropped values, so the caller can release them
+     */
+    public List<T> retainRange(int from, int to) {
+        List<T> dropped = new ArrayList<>();
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null && (pages[slot] < from || pages[slot] > to)) {
+                dropped.add(take(slot));
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * Drop every value.
+     * @return the dropped values, so the caller can release them
+     */
+    public List<T> clear() {
+        return retainRange(0, -1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T take(int slot) {
+        T value = (T) values[slot];
+        values[slot] = null;
+        pages[slot] = -1;
+        return value;
+    }
+}
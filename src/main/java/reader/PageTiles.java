@@ -0,0 +1,73 @@
+package reader;
+
+import java.awt.Rectangle;
+
+/**
+ * Geometry of pages that are decoded in horizontal bands instead of as one image.
+ * <p>
+ * Long-strip (webtoon) pages can be 800x20000 px or more. Decoding one as a single
+ * image costs tens of megabytes, takes long enough to stall the strip and can exceed
+ * what Java2D will draw or scale in one piece. Such pages are cut into fixed-height
+ * tiles of the source image, each decoded on its own with a source region, so only
+ * the tiles near the viewport ever hold pixels.
+ */
+public final class PageTiles {
+
+    // Source rows per tile; a multiple of every subsampling step, so tiles line up
+    public static final int TILE_HEIGHT = 2048;
+    // Pages taller than this many widths, or than MAX_SINGLE_HEIGHT, are tiled
+    private static final int TALL_RATIO = 4;
+    private static final int MAX_SINGLE_HEIGHT = 8192;
+
+    private PageTiles() {}
+
+    /**
+     * Whether a page of this size is decoded in tiles.
+     */
+    public static boolean isTiled(int width, int height) {
+        if (width <= 0 || height <= TILE_HEIGHT) {
+            return false;
+        }
+        return height > MAX_SINGLE_HEIGHT || height > (long) width * TALL_RATIO;
+    }
+
+    /**
+     * @return number of tiles of a page of the given source height
+     */
+    public static int tileCount(int height) {
+        return (height + TILE_HEIGHT - 1) / TILE_HEIGHT;
+    }
+
+    /**
+     * Source region covered by a tile. The last tile may be shorter.
+     */
+    public static Rectangle region(int tile, int width, int height) {
+        int top = tile * TILE_HEIGHT;
+        return new Rectangle(0, top, width, Math.min(TILE_HEIGHT, height - top));
+    }
+
+    /**
+     * A tile's region grown by some source rows above and below, within the page, so
+     * filters that look at neighbouring pixels see the rows beyond the tile's edges.
+     */
+    public static Rectangle withContext(Rectangle region, int rows, int height) {
+        int top = Math.max(0, region.y - rows);
+        int bottom = Math.min(height, region.y + region.height + rows);
+        return new Rectangle(region.x, top, region.width, bottom - top);
+    }
+
+    /**
+     * Tiles overlapping a range of source rows.
+     * @param top first source row
+     * @param bottom source row after the last one
+     * @return {first, last} tile index, or null if the range is empty or outside the page
+     */
+    public static int[] tilesBetween(int top, int bottom, int height) {
+        top = Math.max(0, top);
+        bottom = Math.min(height, bottom);
+        if (top >= bottom) {
+            return null;
+        }
+        return new int[]{top / TILE_HEIGHT, (bottom - 1) / TILE_HEIGHT};
+    }
+}
@@ -0,0 +1,182 @@
+package reader;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import javax.imageio.ImageTypeSpecifier;
+import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Size-classed pool of page-sized images for the decode and scale stages.
+ * <p>
+ * A decoded manga page is several megabytes, which G1 allocates as a humongous
+ * object; allocating one per decode and per zoom step shows up as GC pauses while
+ * scrolling. Pooled images are allocated with dimensions rounded up to a size class,
+ * and callers receive a view of the exact size (a subimage sharing the pooled raster).
+ * <p>
+ * Images are reference counted. {@link #acquire} returns an image with one reference
+ * owned by the caller; every other holder (the decoded-page cache, a page view) takes
+ * its own with {@link #retain} and gives it back with {@link #release}. The pixels go
+ * back to the pool when the last reference is released. A reference that is never
+ * released only costs a pool miss; the image is then simply garbage collected.
+ * Images not created by the pool are ignored by retain and release.
+ */
+public final class PixelPool {
+
+    // Size classes: widths rounded up to 128 px, heights to 256 px
+    private static final int WIDTH_STEP = 128;
+    private static final int HEIGHT_STEP = 256;
+    // Most pixel memory kept idle in the pool
+    private static final long DEFAULT_CAPACITY = 96L * 1024 * 1024;
+
+    private static final PixelPool INSTANCE = new PixelPool(DEFAULT_CAPACITY);
+
+    @Name("shiori.PixelAllocation")
+    @Label("Page Pixel Allocation")
+    @Category({"Shiori", "Reader"})
+    static class AllocationEvent extends Event {
+        @Label("Width")
+        int width;
+        @Label("Height")
+        int height;
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+        @Label("Pool Hit")
+        boolean hit;
+    }
+
+    private record SizeClass(ImageTypeSpecifier type, int width, int height) {}
+
+    private static final class Lease {
+        final SizeClass sizeClass;
+        final BufferedImage pooled;
+        int references = 1;
+
+        Lease(SizeClass sizeClass, BufferedImage pooled) {
+            this.sizeClass = sizeClass;
+            this.pooled = pooled;
+        }
+    }
+
+    private final long capacity;
+    private final Map<SizeClass, ArrayDeque<BufferedImage>> free = new HashMap<>();
+    private final Map<BufferedImage, Lease> leases = new IdentityHashMap<>();
+    private long idleBytes;
+    private long hits;
+    private long misses;
+
+    PixelPool(long capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Get the pool shared by the reader.
+     * @return PixelPool instance
+     */
+    public static PixelPool getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Borrow an image of one of the standard BufferedImage types.
+     */
+    public BufferedImage acquire(int imageType, int width, int height) {
+        return acquire(ImageTypeSpecifier.createFromBufferedImageType(imageType), width, height);
+    }
+
+    /**
+     * Borrow an image with the given layout. Its contents are undefined.
+     * @return an image of exactly width x height, holding one reference for the caller
+     */
+    public BufferedImage acquire(ImageTypeSpecifier type, int width, int height) {
+        SizeClass sizeClass = new SizeClass(type, roundUp(width, WIDTH_STEP), roundUp(height, HEIGHT_STEP));
+        BufferedImage pooled;
+        boolean hit;
+
+        synchronized (this) {
+            ArrayDeque<BufferedImage> images = free.get(sizeClass);
+            pooled = images != null ? images.pollLast() : null;
+            hit = pooled != null;
+            if (hit) {
+                idleBytes -= PageImages.sizeInBytes(pooled);
+                hits++;
+            } else {
+                misses++;
+            }
+        }
+        if (pooled == null) {
+            pooled = type.createBufferedImage(sizeClass.width(), sizeClass.height());
+        }
+
+        BufferedImage view = pooled.getWidth() == width && pooled.getHeight() == height
+                ? pooled
+                : pooled.getSubimage(0, 0, width, height);
+        synchronized (this) {
+            leases.put(view, new Lease(sizeClass, pooled));
+        }
+
+        AllocationEvent event = new AllocationEvent();
+        if (event.shouldCommit()) {
+            event.width = width;
+            event.height = height;
+            event.bytes = PageImages.sizeInBytes(pooled);
+            event.hit = hit;
+            event.commit();
+        }
+        return view;
+    }
+
+    /**
+     * Take another reference to a pooled image.
+     */
+    public synchronized void retain(BufferedImage image) {
+        if (image == null) return;
+        Lease lease = leases.get(image);
+        if (lease != null) {
+            lease.references++;
+        }
+    }
+
+    /**
+     * Give back a reference. The pixels return to the pool with the last one.
+     */
+    public synchronized void release(BufferedImage image) {
+        if (image == null) return;
+        Lease lease = leases.get(image);
+        if (lease == null || --lease.references > 0) {
+            return;
+        }
+
+        leases.remove(image);
+        long bytes = PageImages.sizeInBytes(lease.pooled);
+        if (idleBytes + bytes > capacity) {
+            return;
+        }
+        free.computeIfAbsent(lease.sizeClass, k -> new ArrayDeque<>()).addLast(lease.pooled);
+        idleBytes += bytes;
+    }
+
+    /**
+     * @return share of acquisitions served from the pool since startup
+     */
+    public synchronized double hitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    synchronized long idleBytes() {
+        return idleBytes;
+    }
+
+    private static int roundUp(int value, int step) {
+        return Math.max(step, (value + step - 1) / step * step);
+    }
+}
@@ -0,0 +1,49 @@
+package reader;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread pools shared by everything that loads pages for the reader.
+ */
+public final class ReaderExecutors {
+
+    static final int FETCH_CONCURRENCY = 6;
+    static final int DECODE_CONCURRENCY = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+    // Cache reads and downloads (I/O-bound)
+    private static final ExecutorService FETCH_POOL = newPool("page-fetch", FETCH_CONCURRENCY);
+    // Image decoding and scaling (CPU-bound)
+    private static final ExecutorService DECODE_POOL = newPool("page-decode", DECODE_CONCURRENCY);
+    // Background work for chapters that are not on screen yet; one at a time, lowest priority
+    private static final ExecutorService PREFETCH_POOL = newPool("chapter-prefetch", 1, Thread.MIN_PRIORITY);
+
+    private ReaderExecutors() {}
+
+    public static ExecutorService fetchPool() {
+        return FETCH_POOL;
+    }
+
+    public static ExecutorService decodePool() {
+        return DECODE_POOL;
+    }
+
+    public static ExecutorService prefetchPool() {
+        return PREFETCH_POOL;
+    }
+
+    private static ExecutorService newPool(String name, int threads) {
+        return newPool(name, threads, Thread.NORM_PRIORITY);
+    }
+
+    private static ExecutorService newPool(String name, int threads, int priority) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, name + "-" + count.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(priority);
+            return t;
+        });
+    }
+}
@@ -0,0 +1,91 @@
+package reader;
+
+/**
+ * Estimates how fast the user reads and how long a page takes to download, and
+ * derives how many pages ahead of the current one should already be fetched.
+ * <p>
+ * The window covers the fetch latency plus a safety buffer ("time to starvation"):
+ * a fast skimmer gets a deep window, a slow reader only a few pages, so neither
+ * stalls nor wastes bandwidth on pages that may never be read.
+ * <p>
+ * Not thread-safe; page changes are reported from the EDT, latencies from the
+ * fetch stage, and a slightly stale latency estimate is harmless.
+ */
+public class ReadingPace {
+
+    // Assumed until the first page turns are measured: a brisk reader
+    static final double DEFAULT_SECONDS_PER_PAGE = 4.0;
+    static final double DEFAULT_FETCH_SECONDS = 0.5;
+    // Time between turns longer than this is a break, not reading
+    private static final long IDLE_MILLIS = 5 * 60 * 1000L;
+    // Jumps further than this are navigation, not reading
+    private static final int MAX_READ_STEP = 3;
+    // Weight of the newest sample in the moving averages
+    private static final double SMOOTHING = 0.3;
+
+    private final double bufferSeconds;
+    private final int minAhead;
+    private volatile double secondsPerPage = DEFAULT_SECONDS_PER_PAGE;
+    private volatile double fetchSeconds = DEFAULT_FETCH_SECONDS;
+    private int lastPage = -1;
+    private long lastTurnAt;
+
+    /**
+     * @param bufferSeconds reading time that should be downloaded in advance beyond the fetch latency
+     * @param minAhead smallest window, whatever the pace
+     */
+    public ReadingPace(double bufferSeconds, int minAhead) {
+        this.bufferSeconds = bufferSeconds;
+        this.minAhead = minAhead;
+    }
+
+    /**
+     * Record that the current page changed.
+     * @param pageIndex the new current page
+     * @param nowMillis wall-clock time of the change
+     */
+    public void onPageChanged(int pageIndex, long nowMillis) {
+        int step = pageIndex - lastPage;
+        long elapsed = nowMillis - lastTurnAt;
+
+        if (lastPage >= 0 && step > 0 && step <= MAX_READ_STEP && elapsed < IDLE_MILLIS) {
+            double perPage = elapsed / 1000.0 / step;
+            secondsPerPage = SMOOTHING * perPage + (1 - SMOOTHING) * secondsPerPage;
+        }
+        lastPage = pageIndex;
+        lastTurnAt = nowMillis;
+    }
+
+    /**
+     * Record how long one page took to download.
+     */
+    public void onPageFetched(long latencyMillis) {
+        fetchSeconds = SMOOTHING * (latencyMillis / 1000.0) + (1 - SMOOTHING) * fetchSeconds;
+    }
+
+    /**
+     * @return pages per minute at the current estimate
+     */
+    public double pagesPerMinute() {
+        return 60.0 / Math.max(0.1, secondsPerPage);
+    }
+
+    /**
+     * Number of pages past the current one that should be fetched.
+     * @param maxAhead upper bound, e.g. a cap for metered connections
+     */
+    public int pagesAhead(int maxAhead) {
+        double seconds = bufferSeconds + fetchSeconds;
+        int ahead = (int) Math.ceil(seconds / Math.max(0.1, secondsPerPage)) + 1;
+        return Math.max(Math.min(minAhead, maxAhead), Math.min(ahead, maxAhead));
+    }
+
+    /**
+     * Forget the measured pace, e.g. when another manga is opened.
+     */
+    public void reset() {
+        lastPage = -1;
+        lastTurnAt = 0;
+        secondsPerPage = DEFAULT_SECONDS_PER_PAGE;
+    }
+}
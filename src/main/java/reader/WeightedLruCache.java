@@ -0,0 +1,97 @@
+package reader;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Thread-safe LRU cache bounded by the total weight of its values (e.g. bytes)
+ * rather than by entry count. Least recently used entries are evicted first.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class WeightedLruCache<K, V> {
+
+    private final long capacity;
+    private final ToLongFunction<V> weigher;
+    private final Consumer<V> onRemoval;
+    private final LinkedHashMap<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+
+    /**
+     * @param capacity maximum total weight
+     * @param weigher weight of a single value
+     */
+    public WeightedLruCache(long capacity, ToLongFunction<V> weigher) {
+        this(capacity, weigher, value -> {});
+    }
+
+    /**
+     * @param capacity maximum total weight
+     * @param weigher weight of a single value
+     * @param onRemoval called with every value the cache stops holding: evicted, replaced,
+     *                  removed, cleared, or rejected by put for being too heavy
+     */
+    public WeightedLruCache(long capacity, ToLongFunction<V> weigher, Consumer<V> onRemoval) {
+        this.capacity = capacity;
+        this.weigher = weigher;
+        this.onRemoval = onRemoval;
+    }
+
+    /**
+     * @return the value, or null if absent. Marks the entry as recently used.
+     */
+    public synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Add or replace a value. A value heavier than the whole capacity is not cached.
+     */
+    public synchronized void put(K key, V value) {
+        long valueWeight = weigher.applyAsLong(value);
+        remove(key);
+        if (valueWeight > capacity) {
+            onRemoval.accept(value);
+            return;
+        }
+
+        entries.put(key, value);
+        weight += valueWeight;
+
+        Iterator<Map.Entry<K, V>> eldest = entries.entrySet().iterator();
+        while (weight > capacity && eldest.hasNext()) {
+            V evicted = eldest.next().getValue();
+            weight -= weigher.applyAsLong(evicted);
+            eldest.remove();
+            onRemoval.accept(evicted);
+        }
+    }
+
+    public synchronized void remove(K key) {
+        V previous = entries.remove(key);
+        if (previous != null) {
+            weight -= weigher.applyAsLong(previous);
+            onRemoval.accept(previous);
+        }
+    }
+
+    public synchronized void clear() {
+        for (V value : entries.values()) {
+            onRemoval.accept(value);
+        }
+        entries.clear();
+        weight = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long weight() {
+        return weight;
+    }
+}
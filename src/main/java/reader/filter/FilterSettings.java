@@ -0,0 +1,44 @@
+package reader.filter;
+
+/**
+ * Adjustments the built-in page filters apply to a page.
+ *
+ * @param brightness added to every level, in percent of the full range (-100 to 100)
+ * @param contrast   factor levels are spread by around mid-gray, 1 for none
+ * @param gamma      gamma correction, above 1 lightens mid-tones, 1 for none
+ * @param sharpen    strength of the sharpening, 0 for none and 1 for a full Laplacian step
+ * @param grayscale  convert colour pages to gray
+ */
+public record FilterSettings(int brightness, double contrast, double gamma, double sharpen, boolean grayscale) {
+
+    public static final FilterSettings NONE = new FilterSettings(0, 1.0, 1.0, 0.0, false);
+
+    public FilterSettings {
+        if (contrast <= 0 || gamma <= 0 || sharpen < 0) {
+            throw new IllegalArgumentException("Invalid filter settings: contrast=" + contrast
+                    + " gamma=" + gamma + " sharpen=" + sharpen);
+        }
+        brightness = Math.max(-100, Math.min(100, brightness));
+    }
+
+    /**
+     * @return true if applying these settings leaves a page unchanged
+     */
+    public boolean isIdentity() {
+        return !hasTone() && sharpen == 0 && !grayscale;
+    }
+
+    /**
+     * @return true if levels are remapped (brightness, contrast or gamma)
+     */
+    public boolean hasTone() {
+        return brightness != 0 || contrast != 1.0 || gamma != 1.0;
+    }
+
+    /**
+     * Short stable description, for cache keys.
+     */
+    public String key() {
+        return "b" + brightness + "c" + contrast + "g" + gamma + "s" + sharpen + (grayscale ? "gray" : "");
+    }
+}
@@ -0,0 +1,103 @@
+package reader.filter;
+
+import plugin.PluginCapability;
+import plugin.PluginDescriptor;
+import plugin.ShioriPlugin;
+
+import java.awt.image.WritableRaster;
+
+/**
+ * The built-in page filters as an image-processing plugin, so they run in the reader's
+ * decode stage like any other raster plugin: once per decoded page, on the decode pool,
+ * with the filtered pixels kept in the decoded-page cache.
+ */
+public class PageFilterPlugin implements ShioriPlugin {
+
+    public static final String ID = "shiori.page-filters";
+    private static final String VERSION = "1.0";
+
+    private final PageFilters filters;
+    private volatile FilterSettings settings;
+
+    public PageFilterPlugin(FilterSettings settings) {
+        this(PageFilters.getInstance(), settings);
+    }
+
+    PageFilterPlugin(PageFilters filters, FilterSettings settings) {
+        this.filters = filters;
+        this.settings = settings;
+    }
+
+    /**
+     * Descriptor to register the plugin with.
+     */
+    public static PluginDescriptor descriptor() {
+        return new PluginDescriptor.Builder()
+                .setId(ID)
+                .setName("Page Filters")
+                .setVersion(VERSION)
+                .setAuthor("Shiori")
+                .setDescription("Brightness, contrast, gamma, sharpening and grayscale for pages")
+                .setCapability(PluginCapability.IMAGE_PROCESSING)
+                .setMainClass(PageFilterPlugin.class.getName())
+                .setBuiltIn(true)
+                .build();
+    }
+
+    public FilterSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Change the adjustments. Pages decoded from now on use them; the reader decodes the
+     * pages on screen again when {@link #getProcessingKey()} changes.
+     */
+    public void setSettings(FilterSettings settings) {
+        this.settings = settings;
+    }
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return "Page Filters";
+    }
+
+    @Override
+    public String getVersion() {
+        return VERSION;
+    }
+
+    @Override
+    public String getAuthor() {
+        return "Shiori";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Brightness, contrast, gamma, sharpening and grayscale for pages";
+    }
+
+    @Override
+    public PluginCapability getCapability() {
+        return PluginCapability.IMAGE_PROCESSING;
+    }
+
+    @Override
+    public boolean isRasterProcessor() {
+        return true;
+    }
+
+    @Override
+    public String getProcessingKey() {
+        return VERSION + ";" + settings.key();
+    }
+
+    @Override
+    public void onPageDecoded(WritableRaster raster, int pageIndex) {
+        filters.apply(raster, settings);
+    }
+}
@@ -0,0 +1,315 @@
+package reader.filter;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+
+/**
+ * Built-in page filters: brightness/contrast, gamma, sharpening, grayscale conversion
+ * and detection of white margins, working row by row on the pixels of decoded pages.
+ * <p>
+ * The inner loops use the Vector API when the JVM runs with
+ * {@code --add-modules jdk.incubator.vector}, and plain loops otherwise (or with
+ * {@code -Dshiori.filters.scalar=true}). Gamma is a 256-entry table lookup in both, as
+ * there is no vector form of it that beats the table.
+ * <p>
+ * Pages are expected in the reader's display formats: one byte per pixel for gray pages,
+ * packed ints with 8 bits per channel for colour pages. Other layouts are left unchanged.
+ * Thread-safe; several pages can be filtered at once.
+ */
+public class PageFilters {
+
+    private static final Logger logger = LogManager.getLogger(PageFilters.class);
+
+    // Levels at or above this count as paper when looking for margins
+    public static final int DEFAULT_WHITE_THRESHOLD = 235;
+    // Rec. 601 luma weights in 1/256 steps
+    private static final int LUMA_RED = 77;
+    private static final int LUMA_GREEN = 150;
+    private static final int LUMA_BLUE = 29;
+
+    private static volatile PageFilters instance;
+
+    private final PixelKernels kernels;
+
+    /**
+     * Get the shared filters, on the fastest kernels this JVM supports.
+     */
+    public static PageFilters getInstance() {
+        if (instance == null) {
+            synchronized (PageFilters.class) {
+                if (instance == null) {
+                    instance = new PageFilters(createKernels());
+                }
+            }
+        }
+        return instance;
+    }
+
+    PageFilters(PixelKernels kernels) {
+        this.kernels = kernels;
+    }
+
+    /**
+     * @return true if the filters run on the Vector API
+     */
+    public boolean isVectorized() {
+        return !(kernels instanceof ScalarKernels);
+    }
+
+    /**
+     * Apply filter settings to a page in place.
+     * @param raster pixels of the page, in a display format
+     * @param settings the adjustments
+     * @return false if the raster's layout is not supported and it was left unchanged
+     */
+    public boolean apply(WritableRaster raster, FilterSettings settings) {
+        if (settings.isIdentity()) return true;
+        Rows rows = Rows.of(raster);
+        if (rows == null) {
+            logger.debug("Unsupported raster layout for page filters: {}", raster.getSampleModel());
+            return false;
+        }
+
+        if (settings.hasTone() || (settings.grayscale() && !rows.isGray())) {
+            adjustLevels(rows, settings);
+        }
+        if (settings.sharpen() > 0) {
+            sharpen(rows, (int) Math.round(settings.sharpen() * 256));
+        }
+        return true;
+    }
+
+    /**
+     * Find the part of a page that is not white margin.
+     * @param raster pixels of the page, in a display format
+     * @param threshold lowest level (1-255) that counts as paper, see {@link #DEFAULT_WHITE_THRESHOLD}
+     * @return bounds of the content in raster coordinates, the whole raster if its layout
+     *         is not supported, or null if the page is blank
+     */
+    public Rectangle contentBounds(Raster raster, int threshold) {
+        Rows rows = Rows.of(raster);
+        if (rows == null) {
+            return new Rectangle(raster.getMinX(), raster.getMinY(), raster.getWidth(), raster.getHeight());
+        }
+
+        int width = rows.width;
+        Object row = rows.newRow();
+        int top = 0;
+        while (top < rows.height && firstBelow(rows.read(top, row), 0, width, threshold) < 0) top++;
+        if (top == rows.height) return null;
+        int bottom = rows.height - 1;
+        while (bottom > top && firstBelow(rows.read(bottom, row), 0, width, threshold) < 0) bottom--;
+
+        // Each row only needs scanning where it could still widen the bounds
+        int left = width;
+        int right = -1;
+        for (int y = top; y <= bottom && (left > 0 || right < width - 1); y++) {
+            rows.read(y, row);
+            int first = firstBelow(row, 0, left, threshold);
+            if (first >= 0) left = first;
+            int last = lastBelow(row, right + 1, width, threshold);
+            if (last >= 0) right = last;
+        }
+        return new Rectangle(raster.getMinX() + left, raster.getMinY() + top, right - left + 1, bottom - top + 1);
+    }
+
+    /**
+     * Crop the white margins off a page.
+     * @return a view of the content of the image (sharing its pixels), the image itself
+     *         if there are no margins, or null if the page is blank
+     */
+    public BufferedImage crop(BufferedImage image) {
+        Rectangle bounds = contentBounds(image.getRaster(), DEFAULT_WHITE_THRESHOLD);
+        if (bounds == null) return null;
+        if (bounds.width == image.getWidth() && bounds.height == image.getHeight()) return image;
+        return image.getSubimage(bounds.x, bounds.y, bounds.width, bounds.height);
+    }
+
+    /**
+     * Grayscale conversion and tone, one row at a time.
+     */
+    private void adjustLevels(Rows rows, FilterSettings settings) {
+        int width = rows.width;
+        int scale = (int) Math.round(settings.contrast() * 256);
+        int offset = (int) Math.round(128 - 128 * settings.contrast() + settings.brightness() * 255 / 100.0);
+        byte[] table = settings.gamma() != 1.0 ? toneTable(scale, offset, settings.gamma()) : null;
+        int high = rows.redShift == 16 ? LUMA_RED : LUMA_BLUE;
+        int low = rows.redShift == 16 ? LUMA_BLUE : LUMA_RED;
+
+        Object row = rows.newRow();
+        for (int y = 0; y < rows.height; y++) {
+            rows.read(y, row);
+            if (row instanceof int[] ints) {
+                if (settings.grayscale()) kernels.grayscale(ints, 0, width, high, LUMA_GREEN, low);
+                if (table != null) {
+                    lookup(ints, width, table);
+                } else if (settings.hasTone()) {
+                    kernels.linear(ints, 0, width, scale, offset);
+                }
+            } else {
+                byte[] bytes = (byte[]) row;
+                if (table != null) {
+                    lookup(bytes, width, table);
+                } else {
+                    kernels.linear(bytes, 0, width, scale, offset);
+                }
+            }
+            rows.write(y, row);
+        }
+    }
+
+    /**
+     * Levels through the linear adjustment, then the gamma curve.
+     */
+    static byte[] toneTable(int scale, int offset, double gamma) {
+        byte[] table = new byte[256];
+        for (int level = 0; level < 256; level++) {
+            int linear = Math.max(0, Math.min(255, (level * scale + 128 >> 8) + offset));
+            table[level] = (byte) Math.round(255 * Math.pow(linear / 255.0, 1 / gamma));
+        }
+        return table;
+    }
+
+    private static void lookup(byte[] row, int width, byte[] table) {
+        for (int i = 0; i < width; i++) {
+            row[i] = table[row[i] & 0xFF];
+        }
+    }
+
+    private static void lookup(int[] row, int width, byte[] table) {
+        for (int i = 0; i < width; i++) {
+            int p = row[i];
+            row[i] = (p & 0xFF000000)
+                    | (table[p >>> 16 & 0xFF] & 0xFF) << 16
+                    | (table[p >>> 8 & 0xFF] & 0xFF) << 8
+                    | (table[p & 0xFF] & 0xFF);
+        }
+    }
+
+    /**
+     * Sharpen row by row, keeping the original of the rows above and below in a
+     * three-row window so only a few rows of scratch memory are needed.
+     */
+    private void sharpen(Rows rows, int amount) {
+        int width = rows.width;
+        if (rows.height < 3 || width < 3) return;
+        Object[] window = {rows.newRow(), rows.newRow(), rows.newRow()};
+        Object out = rows.newRow();
+        rows.read(0, window[0]);
+        rows.read(1, window[1]);
+        for (int y = 1; y < rows.height - 1; y++) {
+            Object above = window[(y - 1) % 3];
+            Object row = window[y % 3];
+            Object below = rows.read(y + 1, window[(y + 1) % 3]);
+            if (out instanceof int[] ints) {
+                kernels.sharpen((int[]) above, (int[]) row, (int[]) below, ints, width, amount);
+            } else {
+                kernels.sharpen((byte[]) above, (byte[]) row, (byte[]) below, (byte[]) out, width, amount);
+            }
+            rows.write(y, out);
+        }
+    }
+
+    private int firstBelow(Object row, int from, int to, int threshold) {
+        return row instanceof int[] ints
+                ? kernels.firstBelow(ints, from, to, threshold)
+                : kernels.firstBelow((byte[]) row, from, to, threshold);
+    }
+
+    private int lastBelow(Object row, int from, int to, int threshold) {
+        return row instanceof int[] ints
+                ? kernels.lastBelow(ints, from, to, threshold)
+                : kernels.lastBelow((byte[]) row, from, to, threshold);
+    }
+
+    /**
+     * Load the Vector API kernels by name, so that neither this class nor its callers
+     * link against the incubator module. VectorKernels is also compiled on its own,
+     * being the only class that needs the module at build time.
+     * @throws LinkageError if the JVM runs without {@code jdk.incubator.vector}
+     */
+    static PixelKernels vectorKernels() throws ReflectiveOperationException {
+        return (PixelKernels) Class.forName("reader.filter.VectorKernels").getDeclaredConstructor().newInstance();
+    }
+
+    private static PixelKernels createKernels() {
+        if (Boolean.getBoolean("shiori.filters.scalar")
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            logger.info("Page filters use scalar kernels");
+            return new ScalarKernels();
+        }
+        try {
+            PixelKernels kernels = vectorKernels();
+            logger.info("Page filters use Vector API kernels");
+            return kernels;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            logger.warn("Vector API kernels unavailable, using scalar kernels: {}", e.toString());
+            return new ScalarKernels();
+        }
+    }
+
+    /**
+     * Row access to a raster in one of the supported layouts, through scratch arrays:
+     * taking a raster's backing array would stop Java2D from caching the page for drawing.
+     */
+    private static final class Rows {
+        final Raster raster;
+        final int width;
+        final int height;
+        // Bit position of the red channel in packed ints: 16 for RGB, 0 for BGR, -1 for gray bytes
+        final int redShift;
+
+        private Rows(Raster raster, int redShift) {
+            this.raster = raster;
+            this.width = raster.getWidth();
+            this.height = raster.getHeight();
+            this.redShift = redShift;
+        }
+
+        boolean isGray() {
+            return redShift < 0;
+        }
+
+        Object newRow() {
+            return isGray() ? new byte[width] : new int[width];
+        }
+
+        /**
+         * @return the row array, filled with row y (relative to the raster's origin)
+         */
+        Object read(int y, Object row) {
+            return raster.getDataElements(raster.getMinX(), raster.getMinY() + y, width, 1, row);
+        }
+
+        void write(int y, Object row) {
+            ((WritableRaster) raster).setDataElements(raster.getMinX(), raster.getMinY() + y, width, 1, row);
+        }
+
+        static Rows of(Raster raster) {
+            SampleModel model = raster.getSampleModel();
+            if (model.getTransferType() == DataBuffer.TYPE_BYTE && model.getNumBands() == 1
+                    && model.getSampleSize(0) == 8) {
+                return new Rows(raster, -1);
+            }
+            if (model.getTransferType() == DataBuffer.TYPE_INT && model instanceof SinglePixelPackedSampleModel packed
+                    && model.getNumBands() >= 3) {
+                int[] masks = packed.getBitMasks();
+                if (masks[0] == 0xFF0000 && masks[1] == 0xFF00 && masks[2] == 0xFF) {
+                    return new Rows(raster, 16);
+                }
+                if (masks[0] == 0xFF && masks[1] == 0xFF00 && masks[2] == 0xFF0000) {
+                    return new Rows(raster, 0);
+                }
+            }
+            return null;
+        }
+    }
+}
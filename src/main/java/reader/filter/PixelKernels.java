@@ -0,0 +1,69 @@
+package reader.filter;
+
+/**
+ * Inner loops of the page filters over raw pixel arrays: one byte per pixel for gray
+ * pages, one packed int per pixel (8 bits per channel) for colour pages.
+ * <p>
+ * Ranges are half-open, {@code [from, to)}. Levels are clamped to 0..255.
+ */
+interface PixelKernels {
+
+    /**
+     * Map every level {@code x} to {@code (x * scale + 128 >> 8) + offset}, in place.
+     * @param scale contrast factor in 1/256 steps
+     * @param offset levels added after scaling
+     */
+    void linear(byte[] gray, int from, int to, int scale, int offset);
+
+    /**
+     * Like {@link #linear(byte[], int, int, int, int)}, for each of the three low
+     * channels; the top byte is kept.
+     */
+    void linear(int[] rgb, int from, int to, int scale, int offset);
+
+    /**
+     * Replace each pixel by its luma in all three channels, in place.
+     * @param highWeight weight of bits 16-23, in 1/256 steps
+     * @param midWeight weight of bits 8-15
+     * @param lowWeight weight of bits 0-7
+     */
+    void grayscale(int[] rgb, int from, int to, int highWeight, int midWeight, int lowWeight);
+
+    /**
+     * Sharpen one row with a four-neighbour Laplacian:
+     * {@code out = c + ((4c - up - down - left - right) * amount + 128 >> 8)}.
+     * The first and last pixels are copied unchanged.
+     * @param above the row above, unmodified
+     * @param row the row itself, unmodified
+     * @param below the row below, unmodified
+     * @param out receives the sharpened row
+     * @param amount strength in 1/256 steps
+     */
+    void sharpen(byte[] above, byte[] row, byte[] below, byte[] out, int width, int amount);
+
+    /**
+     * Like {@link #sharpen(byte[], byte[], byte[], byte[], int, int)}, for each of the
+     * three low channels; the top byte is taken from {@code row}.
+     */
+    void sharpen(int[] above, int[] row, int[] below, int[] out, int width, int amount);
+
+    /**
+     * @return index of the first pixel darker than the threshold, or -1
+     */
+    int firstBelow(byte[] gray, int from, int to, int threshold);
+
+    /**
+     * @return index of the first pixel with a channel darker than the threshold, or -1
+     */
+    int firstBelow(int[] rgb, int from, int to, int threshold);
+
+    /**
+     * @return index of the last pixel darker than the threshold, or -1
+     */
+    int lastBelow(byte[] gray, int from, int to, int threshold);
+
+    /**
+     * @return index of the last pixel with a channel darker than the threshold, or -1
+     */
+    int lastBelow(int[] rgb, int from, int to, int threshold);
+}
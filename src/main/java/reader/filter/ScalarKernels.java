@@ -0,0 +1,124 @@
+package reader.filter;
+
+/**
+ * Plain-loop page filter kernels, used when the Vector API is not available.
+ */
+final class ScalarKernels implements PixelKernels {
+
+    @Override
+    public void linear(byte[] gray, int from, int to, int scale, int offset) {
+        for (int i = from; i < to; i++) {
+            gray[i] = (byte) linear(gray[i] & 0xFF, scale, offset);
+        }
+    }
+
+    @Override
+    public void linear(int[] rgb, int from, int to, int scale, int offset) {
+        for (int i = from; i < to; i++) {
+            int p = rgb[i];
+            rgb[i] = (p & 0xFF000000)
+                    | linear(p >>> 16 & 0xFF, scale, offset) << 16
+                    | linear(p >>> 8 & 0xFF, scale, offset) << 8
+                    | linear(p & 0xFF, scale, offset);
+        }
+    }
+
+    @Override
+    public void grayscale(int[] rgb, int from, int to, int highWeight, int midWeight, int lowWeight) {
+        for (int i = from; i < to; i++) {
+            int p = rgb[i];
+            int luma = ((p >>> 16 & 0xFF) * highWeight + (p >>> 8 & 0xFF) * midWeight + (p & 0xFF) * lowWeight + 128) >> 8;
+            rgb[i] = (p & 0xFF000000) | luma << 16 | luma << 8 | luma;
+        }
+    }
+
+    @Override
+    public void sharpen(byte[] above, byte[] row, byte[] below, byte[] out, int width, int amount) {
+        if (width <= 0) return;
+        out[0] = row[0];
+        out[width - 1] = row[width - 1];
+        sharpenInterior(above, row, below, out, 1, width - 1, amount);
+    }
+
+    /**
+     * Sharpen pixels {@code [from, to)} of a row, none of them its first or last pixel.
+     */
+    void sharpenInterior(byte[] above, byte[] row, byte[] below, byte[] out, int from, int to, int amount) {
+        for (int x = from; x < to; x++) {
+            out[x] = (byte) sharpen(row[x] & 0xFF,
+                    (above[x] & 0xFF) + (below[x] & 0xFF) + (row[x - 1] & 0xFF) + (row[x + 1] & 0xFF), amount);
+        }
+    }
+
+    @Override
+    public void sharpen(int[] above, int[] row, int[] below, int[] out, int width, int amount) {
+        if (width <= 0) return;
+        out[0] = row[0];
+        out[width - 1] = row[width - 1];
+        sharpenInterior(above, row, below, out, 1, width - 1, amount);
+    }
+
+    /**
+     * Sharpen pixels {@code [from, to)} of a row, none of them its first or last pixel.
+     */
+    void sharpenInterior(int[] above, int[] row, int[] below, int[] out, int from, int to, int amount) {
+        for (int x = from; x < to; x++) {
+            int p = row[x];
+            int result = p & 0xFF000000;
+            for (int shift = 0; shift <= 16; shift += 8) {
+                int neighbours = (above[x] >>> shift & 0xFF) + (below[x] >>> shift & 0xFF)
+                        + (row[x - 1] >>> shift & 0xFF) + (row[x + 1] >>> shift & 0xFF);
+                result |= sharpen(p >>> shift & 0xFF, neighbours, amount) << shift;
+            }
+            out[x] = result;
+        }
+    }
+
+    @Override
+    public int firstBelow(byte[] gray, int from, int to, int threshold) {
+        for (int i = from; i < to; i++) {
+            if ((gray[i] & 0xFF) < threshold) return i;
+        }
+        return -1;
+    }
+
+    @Override
+    public int firstBelow(int[] rgb, int from, int to, int threshold) {
+        for (int i = from; i < to; i++) {
+            if (darkest(rgb[i]) < threshold) return i;
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastBelow(byte[] gray, int from, int to, int threshold) {
+        for (int i = to - 1; i >= from; i--) {
+            if ((gray[i] & 0xFF) < threshold) return i;
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastBelow(int[] rgb, int from, int to, int threshold) {
+        for (int i = to - 1; i >= from; i--) {
+            if (darkest(rgb[i]) < threshold) return i;
+        }
+        return -1;
+    }
+
+    private static int linear(int level, int scale, int offset) {
+        return clamp((level * scale + 128 >> 8) + offset);
+    }
+
+    private static int sharpen(int centre, int neighbours, int amount) {
+        return clamp(centre + ((4 * centre - neighbours) * amount + 128 >> 8));
+    }
+
+    private static int darkest(int p) {
+        return Math.min(p >>> 16 & 0xFF, Math.min(p >>> 8 & 0xFF, p & 0xFF));
+    }
+
+    private static int clamp(int level) {
+        return Math.max(0, Math.min(255, level));
+    }
+}
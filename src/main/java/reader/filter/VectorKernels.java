@@ -0,0 +1,201 @@
+package reader.filter;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Page filter kernels on the Vector API. Byte pixels are widened to int lanes in
+ * {@code PARTS} slices so the arithmetic cannot overflow, then narrowed back; packed
+ * RGB pixels are split into channels with shifts and masks. Loop tails use the scalar
+ * kernels, so both implementations give identical results.
+ * <p>
+ * Only loaded when the {@code jdk.incubator.vector} module is present, see {@link PageFilters}.
+ */
+final class VectorKernels implements PixelKernels {
+
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    // Int vectors one byte vector widens into
+    private static final int PARTS = BYTES.length() / INTS.length();
+
+    private final ScalarKernels tail = new ScalarKernels();
+
+    @Override
+    public void linear(byte[] gray, int from, int to, int scale, int offset) {
+        int i = from;
+        for (int upper = to - BYTES.length(); i <= upper; i += BYTES.length()) {
+            ByteVector v = ByteVector.fromArray(BYTES, gray, i);
+            ByteVector out = ByteVector.zero(BYTES);
+            for (int part = 0; part < PARTS; part++) {
+                IntVector x = widen(v, part);
+                out = out.or(narrow(linear(x, scale, offset), part));
+            }
+            out.intoArray(gray, i);
+        }
+        tail.linear(gray, i, to, scale, offset);
+    }
+
+    @Override
+    public void linear(int[] rgb, int from, int to, int scale, int offset) {
+        int i = from;
+        for (int upper = to - INTS.length(); i <= upper; i += INTS.length()) {
+            IntVector p = IntVector.fromArray(INTS, rgb, i);
+            p.and(0xFF000000)
+                    .or(linear(channel(p, 16), scale, offset).lanewise(VectorOperators.LSHL, 16))
+                    .or(linear(channel(p, 8), scale, offset).lanewise(VectorOperators.LSHL, 8))
+                    .or(linear(channel(p, 0), scale, offset))
+                    .intoArray(rgb, i);
+        }
+        tail.linear(rgb, i, to, scale, offset);
+    }
+
+    @Override
+    public void grayscale(int[] rgb, int from, int to, int highWeight, int midWeight, int lowWeight) {
+        int i = from;
+        for (int upper = to - INTS.length(); i <= upper; i += INTS.length()) {
+            IntVector p = IntVector.fromArray(INTS, rgb, i);
+            IntVector luma = channel(p, 16).mul(highWeight)
+                    .add(channel(p, 8).mul(midWeight))
+                    .add(channel(p, 0).mul(lowWeight))
+                    .add(128)
+                    .lanewise(VectorOperators.ASHR, 8);
+            p.and(0xFF000000)
+                    .or(luma.lanewise(VectorOperators.LSHL, 16))
+                    .or(luma.lanewise(VectorOperators.LSHL, 8))
+                    .or(luma)
+                    .intoArray(rgb, i);
+        }
+        tail.grayscale(rgb, i, to, highWeight, midWeight, lowWeight);
+    }
+
+    @Override
+    public void sharpen(byte[] above, byte[] row, byte[] below, byte[] out, int width, int amount) {
+        if (width <= 0) return;
+        out[0] = row[0];
+        out[width - 1] = row[width - 1];
+        // Vectors read one pixel either side, so they cover [1, width - 1) and the rest is scalar
+        int x = 1;
+        for (int upper = width - 1 - BYTES.length(); x <= upper; x += BYTES.length()) {
+            ByteVector centre = ByteVector.fromArray(BYTES, row, x);
+            ByteVector left = ByteVector.fromArray(BYTES, row, x - 1);
+            ByteVector right = ByteVector.fromArray(BYTES, row, x + 1);
+            ByteVector up = ByteVector.fromArray(BYTES, above, x);
+            ByteVector down = ByteVector.fromArray(BYTES, below, x);
+            ByteVector result = ByteVector.zero(BYTES);
+            for (int part = 0; part < PARTS; part++) {
+                IntVector neighbours = widen(left, part).add(widen(right, part))
+                        .add(widen(up, part)).add(widen(down, part));
+                result = result.or(narrow(sharpen(widen(centre, part), neighbours, amount), part));
+            }
+            result.intoArray(out, x);
+        }
+        tail.sharpenInterior(above, row, below, out, x, width - 1, amount);
+    }
+
+    @Override
+    public void sharpen(int[] above, int[] row, int[] below, int[] out, int width, int amount) {
+        if (width <= 0) return;
+        out[0] = row[0];
+        out[width - 1] = row[width - 1];
+        int x = 1;
+        for (int upper = width - 1 - INTS.length(); x <= upper; x += INTS.length()) {
+            IntVector centre = IntVector.fromArray(INTS, row, x);
+            IntVector left = IntVector.fromArray(INTS, row, x - 1);
+            IntVector right = IntVector.fromArray(INTS, row, x + 1);
+            IntVector up = IntVector.fromArray(INTS, above, x);
+            IntVector down = IntVector.fromArray(INTS, below, x);
+            IntVector result = centre.and(0xFF000000);
+            for (int shift = 0; shift <= 16; shift += 8) {
+                IntVector neighbours = channel(left, shift).add(channel(right, shift))
+                        .add(channel(up, shift)).add(channel(down, shift));
+                result = result.or(sharpen(channel(centre, shift), neighbours, amount)
+                        .lanewise(VectorOperators.LSHL, shift));
+            }
+            result.intoArray(out, x);
+        }
+        tail.sharpenInterior(above, row, below, out, x, width - 1, amount);
+    }
+
+    @Override
+    public int firstBelow(byte[] gray, int from, int to, int threshold) {
+        int i = from;
+        for (int upper = to - BYTES.length(); i <= upper; i += BYTES.length()) {
+            VectorMask<Byte> dark = darker(ByteVector.fromArray(BYTES, gray, i), threshold);
+            if (dark.anyTrue()) return i + dark.firstTrue();
+        }
+        return tail.firstBelow(gray, i, to, threshold);
+    }
+
+    @Override
+    public int firstBelow(int[] rgb, int from, int to, int threshold) {
+        int i = from;
+        for (int upper = to - INTS.length(); i <= upper; i += INTS.length()) {
+            VectorMask<Integer> dark = darker(IntVector.fromArray(INTS, rgb, i), threshold);
+            if (dark.anyTrue()) return i + dark.firstTrue();
+        }
+        return tail.firstBelow(rgb, i, to, threshold);
+    }
+
+    @Override
+    public int lastBelow(byte[] gray, int from, int to, int threshold) {
+        int i = to;
+        for (; i - BYTES.length() >= from; i -= BYTES.length()) {
+            VectorMask<Byte> dark = darker(ByteVector.fromArray(BYTES, gray, i - BYTES.length()), threshold);
+            if (dark.anyTrue()) return i - BYTES.length() + dark.lastTrue();
+        }
+        return tail.lastBelow(gray, from, i, threshold);
+    }
+
+    @Override
+    public int lastBelow(int[] rgb, int from, int to, int threshold) {
+        int i = to;
+        for (; i - INTS.length() >= from; i -= INTS.length()) {
+            VectorMask<Integer> dark = darker(IntVector.fromArray(INTS, rgb, i - INTS.length()), threshold);
+            if (dark.anyTrue()) return i - INTS.length() + dark.lastTrue();
+        }
+        return tail.lastBelow(rgb, from, i, threshold);
+    }
+
+    /**
+     * One slice of a byte vector as unsigned int lanes.
+     */
+    private static IntVector widen(ByteVector v, int part) {
+        return ((IntVector) v.convertShape(VectorOperators.B2I, INTS, part)).and(0xFF);
+    }
+
+    /**
+     * Int lanes (already 0..255) back into their slice of a byte vector, other lanes zero.
+     */
+    private static ByteVector narrow(IntVector v, int part) {
+        return (ByteVector) v.convertShape(VectorOperators.I2B, BYTES, -part);
+    }
+
+    private static IntVector channel(IntVector p, int shift) {
+        return p.lanewise(VectorOperators.LSHR, shift).and(0xFF);
+    }
+
+    private static IntVector linear(IntVector level, int scale, int offset) {
+        return clamp(level.mul(scale).add(128).lanewise(VectorOperators.ASHR, 8).add(offset));
+    }
+
+    private static IntVector sharpen(IntVector centre, IntVector neighbours, int amount) {
+        IntVector detail = centre.mul(4).sub(neighbours).mul(amount).add(128).lanewise(VectorOperators.ASHR, 8);
+        return clamp(centre.add(detail));
+    }
+
+    private static IntVector clamp(IntVector level) {
+        return level.max(0).min(255);
+    }
+
+    private static VectorMask<Byte> darker(ByteVector v, int threshold) {
+        // Flip the sign bit so a signed compare orders the levels as unsigned
+        return v.lanewise(VectorOperators.XOR, (byte) 0x80).compare(VectorOperators.LT, (byte) (threshold ^ 0x80));
+    }
+
+    private static VectorMask<Integer> darker(IntVector p, int threshold) {
+        return channel(p, 16).min(channel(p, 8)).min(channel(p, 0)).compare(VectorOperators.LT, threshold);
+    }
+}
@@ -63,6 +63,34 @@ public class ChapterListPanel extends JPanel {
         }
     }
 
+    /**
+     * Get the chapter that follows the given one in list order.
+     * @param chapter The chapter to look up
+     * @return the next chapter, or null if it is the last one or not in the list
+     */
+    public Chapter chapterAfter(Chapter chapter) {
+        if (chapter == null) return null;
+        for (int i = 0; i < model.getSize() - 1; i++) {
+            if (model.get(i).id().equals(chapter.id())) {
+                return model.get(i + 1);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Select a chapter, which opens it like a click would.
+     * @param chapter The chapter to open
+     */
+    public void selectChapter(Chapter chapter) {
+        for (int i = 0; i < model.getSize(); i++) {
+            if (model.get(i).id().equals(chapter.id())) {
+                list.setSelectedIndex(i);
+                return;
+            }
+        }
+    }
+
     public void previousChapter() {
         int index = list.getSelectedIndex();
         if (index > 0) {
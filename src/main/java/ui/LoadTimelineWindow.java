@@ -0,0 +1,106 @@
+package ui;
+
+import reader.LoadTimeline;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.function.Supplier;
+
+/**
+ * Diagnostics for the chapter in the reader: a table of per-page timings and a waterfall
+ * of the whole load, refreshed every second while the window is open.
+ */
+public class LoadTimelineWindow {
+
+    private static final int REFRESH_MILLIS = 1000;
+    private static final String[] COLUMNS = {"Page", "Source", "Size", "Fetch", "Plugins", "Decode", "Scale", "Painted at"};
+
+    private final JFrame frame;
+    private final Supplier<LoadTimeline> timeline;
+    private final DefaultTableModel model = new DefaultTableModel(COLUMNS, 0) {
+        @Override
+        public boolean isCellEditable(int row, int column) {
+            return false;
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return column == 0 ? Integer.class : String.class;
+        }
+    };
+    private final JLabel summaryLabel = new JLabel(" ");
+    private final LoadWaterfall waterfall = new LoadWaterfall();
+
+    /**
+     * @param timeline the chapter load to show, or null when nothing is loaded
+     */
+    public LoadTimelineWindow(Supplier<LoadTimeline> timeline) {
+        this.timeline = timeline;
+        frame = new JFrame("Load Timeline");
+        frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        frame.setLayout(new BorderLayout());
+
+        summaryLabel.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
+        JTable table = new JTable(model);
+        table.setAutoCreateRowSorter(true);
+        JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT,
+                new JScrollPane(table), new JScrollPane(waterfall));
+        split.setResizeWeight(0.5);
+
+        frame.add(summaryLabel, BorderLayout.NORTH);
+        frame.add(split, BorderLayout.CENTER);
+
+        Timer refreshTimer = new Timer(REFRESH_MILLIS, e -> refresh());
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                refreshTimer.stop();
+            }
+        });
+
+        refresh();
+        refreshTimer.start();
+        frame.setSize(900, 650);
+        frame.setLocationRelativeTo(null);
+        frame.setVisible(true);
+    }
+
+    private void refresh() {
+        LoadTimeline current = timeline.get();
+        waterfall.setTimeline(current);
+        model.setRowCount(0);
+        if (current == null) {
+            summaryLabel.setText("No chapter loaded");
+            return;
+        }
+
+        for (LoadTimeline.PageTiming page : current.getPages()) {
+            model.addRow(new Object[]{
+                    page.page() + 1,
+                    page.source() != null ? page.source().name().toLowerCase() : "-",
+                    PerformanceHud.kib(page.bytes()),
+                    PerformanceHud.millis(page.fetchMillis()),
+                    PerformanceHud.millis(page.processMillis()),
+                    PerformanceHud.millis(page.decodeMillis()),
+                    PerformanceHud.millis(page.scaleMillis()),
+                    PerformanceHud.seconds(page.paintedAtMillis())
+            });
+        }
+
+        LoadTimeline.Summary summary = current.summarize();
+        int[] sources = summary.sources();
+        StringBuilder text = new StringBuilder();
+        for (LoadTimeline.Stage stage : current.getStages()) {
+            text.append(stage.name()).append(' ').append(stage.millis()).append(" ms   ");
+        }
+        text.append(String.format("%d memory / %d disk / %d network, %s   avg fetch %s, decode %s, scale %s   first paint %s",
+                sources[LoadTimeline.Source.MEMORY.ordinal()], sources[LoadTimeline.Source.DISK.ordinal()],
+                sources[LoadTimeline.Source.NETWORK.ordinal()], PerformanceHud.kib(summary.bytes()),
+                PerformanceHud.millis(summary.meanFetchMillis()), PerformanceHud.millis(summary.meanDecodeMillis()),
+                PerformanceHud.millis(summary.meanScaleMillis()), PerformanceHud.seconds(summary.firstPaintMillis())));
+        summaryLabel.setText(text.toString());
+    }
+}
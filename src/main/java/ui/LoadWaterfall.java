@@ -0,0 +1,124 @@
+package ui;
+
+import reader.LoadTimeline;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.List;
+
+/**
+ * Waterfall of a chapter load: one row per chapter stage, then one per page with its
+ * fetch (coloured by where the data came from), decode and scale, and a tick where the
+ * page was first painted. Time runs left to right across the component's width.
+ */
+public class LoadWaterfall extends JComponent {
+
+    private static final int ROW_HEIGHT = 14;
+    private static final int LABEL_WIDTH = 90;
+    private static final int LEGEND_HEIGHT = 20;
+    private static final Color STAGE = new Color(150, 150, 150);
+    private static final Color MEMORY = new Color(80, 190, 90);
+    private static final Color DISK = new Color(70, 130, 220);
+    private static final Color NETWORK = new Color(240, 150, 40);
+    private static final Color DECODE = new Color(210, 70, 70);
+    private static final Color SCALE = new Color(230, 210, 60);
+    private static final Color PAINT = Color.WHITE;
+
+    private List<LoadTimeline.Stage> stages = List.of();
+    private List<LoadTimeline.PageTiming> pages = List.of();
+
+    public LoadWaterfall() {
+        setOpaque(true);
+        setBackground(new Color(25, 25, 25));
+    }
+
+    /**
+     * Show a snapshot of a load.
+     */
+    public void setTimeline(LoadTimeline timeline) {
+        stages = timeline != null ? timeline.getStages() : List.of();
+        pages = timeline != null ? timeline.getPages() : List.of();
+        revalidate();
+        repaint();
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(800, LEGEND_HEIGHT + (stages.size() + pages.size()) * ROW_HEIGHT + 8);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        g.setColor(getBackground());
+        g.fillRect(0, 0, getWidth(), getHeight());
+        Graphics2D g2d = (Graphics2D) g.create();
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2d.setFont(getFont() != null ? getFont().deriveFont(10f) : new Font(Font.SANS_SERIF, Font.PLAIN, 10));
+
+        paintLegend(g2d);
+        long end = 1;
+        for (LoadTimeline.Stage stage : stages) end = Math.max(end, stage.end());
+        for (LoadTimeline.PageTiming page : pages) {
+            end = Math.max(end, Math.max(page.fetchEnd(), Math.max(page.decodeEnd() + Math.max(0, page.scaleNanos()), page.paintedAt())));
+        }
+        double scale = (double) Math.max(1, getWidth() - LABEL_WIDTH - 8) / end;
+
+        int y = LEGEND_HEIGHT;
+        for (LoadTimeline.Stage stage : stages) {
+            label(g2d, stage.name(), y);
+            bar(g2d, STAGE, stage.start(), stage.end(), scale, y);
+            y += ROW_HEIGHT;
+        }
+        for (LoadTimeline.PageTiming page : pages) {
+            label(g2d, "Page " + (page.page() + 1), y);
+            if (page.fetchStart() >= 0) {
+                Color color = switch (page.source()) {
+                    case MEMORY -> MEMORY;
+                    case DISK -> DISK;
+                    case NETWORK -> NETWORK;
+                };
+                bar(g2d, color, page.fetchStart(), page.fetchEnd(), scale, y);
+            }
+            if (page.decodeStart() >= 0) {
+                bar(g2d, DECODE, page.decodeStart(), page.decodeEnd(), scale, y);
+                if (page.scaleNanos() >= 0) {
+                    // Scaling runs some time after the decode; drawn right after it to show its length
+                    bar(g2d, SCALE, page.decodeEnd(), page.decodeEnd() + page.scaleNanos(), scale, y);
+                }
+            }
+            if (page.paintedAt() >= 0) {
+                int x = LABEL_WIDTH + (int) (page.paintedAt() * scale);
+                g2d.setColor(PAINT);
+                g2d.drawLine(x, y + 1, x, y + ROW_HEIGHT - 2);
+            }
+            y += ROW_HEIGHT;
+        }
+        g2d.dispose();
+    }
+
+    private void paintLegend(Graphics2D g) {
+        int x = LABEL_WIDTH;
+        Object[][] entries = {{"memory", MEMORY}, {"disk", DISK}, {"network", NETWORK},
+                {"decode", DECODE}, {"scale", SCALE}, {"painted", PAINT}};
+        FontMetrics metrics = g.getFontMetrics();
+        for (Object[] entry : entries) {
+            g.setColor((Color) entry[1]);
+            g.fillRect(x, 6, 10, 8);
+            g.setColor(Color.LIGHT_GRAY);
+            g.drawString((String) entry[0], x + 14, 6 + metrics.getAscent() - 1);
+            x += 24 + metrics.stringWidth((String) entry[0]);
+        }
+    }
+
+    private void label(Graphics2D g, String text, int y) {
+        g.setColor(Color.LIGHT_GRAY);
+        g.drawString(text, 4, y + g.getFontMetrics().getAscent());
+    }
+
+    private void bar(Graphics2D g, Color color, long start, long end, double scale, int y) {
+        int x = LABEL_WIDTH + (int) (start * scale);
+        int width = Math.max(1, (int) ((end - start) * scale));
+        g.setColor(color);
+        g.fillRect(x, y + 2, width, ROW_HEIGHT - 4);
+    }
+}
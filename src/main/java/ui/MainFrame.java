@@ -7,10 +7,12 @@ import api.MangaDexClient;
 import bookmark.BookmarkStore;
 import model.Bookmark;
 import model.Manga;
+import model.RecentManga;
 import plugin.LibraryManager;
 import plugin.PluginContext;
 import plugin.PluginManager;
 import plugin.ShioriPlugin;
+import reader.filter.PageFilterPlugin;
 import recent.RecentMangasStore;
 import services.*;
 
@@ -25,6 +27,10 @@ import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import javax.swing.filechooser.FileNameExtensionFilter;
@@ -49,6 +55,7 @@ public class MainFrame extends JFrame {
     private final LibraryManager libraryManager;
     private PluginContext pluginContext;
     private JMenu pluginsMenu;
+    private PageFilterPlugin pageFilterPlugin;
 
     private JPanel createBookmarksPanel() {
         JPanel panel = new JPanel(new BorderLayout());
@@ -138,11 +145,49 @@ public class MainFrame extends JFrame {
         chapterList = new ChapterListPanel(
                 chapter -> reader.loadChapter(api, chapter, currentManga)
         );
+        reader.setChapterNavigation(chapterList::chapterAfter, chapterList::selectChapter);
 
         setupMenu();
         SwingUtilities.invokeLater(splash::hide);
     }
 
+    /**
+     * Bring the titles in the recent list up to date, looking all of them up in one
+     * batched request rather than one request per manga.
+     */
+    private void refreshRecentTitles() {
+        Map<String, String> titles = new LinkedHashMap<>();
+        for (RecentManga recent : recentMangasStore.getAll()) {
+            titles.put(recent.mangaId(), recent.title());
+        }
+        if (titles.isEmpty()) return;
+
+        new SwingWorker<Map<String, Manga>, Void>() {
+            @Override
+            protected Map<String, Manga> doInBackground() throws Exception {
+                return api.getMangas(titles.keySet());
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    boolean changed = false;
+                    for (Manga manga : get().values()) {
+                        if (titles.containsKey(manga.id()) && !manga.title().equals(titles.get(manga.id()))) {
+                            recentMangasStore.updateTitle(manga.id(), manga.title());
+                            changed = true;
+                        }
+                    }
+                    if (changed) recentMangasPanel.refreshList();
+                } catch (Exception e) {
+                    // Stored titles are still shown; nothing for the user to act on
+                    Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+                    logger.warn("Failed to refresh recent manga titles: {}", cause.getMessage());
+                }
+            }
+        }.execute();
+    }
+
     /**
      * Initialize stores and panels.
      */
@@ -173,22 +218,34 @@ public class MainFrame extends JFrame {
         this.recentMangasPanel = new RecentMangasPanel(recentMangasStore, mangaId -> {
             // Load manga when selected from recent list
             logger.info("Loading recent manga: {}", mangaId);
-            try {
-                api.getManga(mangaId).ifPresent(manga -> {
-                    this.currentManga = manga;
-                    chapterList.loadChapters(manga.id());
-                    notifyPluginsMangaLoaded(manga);
-                });
-            } catch (Exception e) {
-                logger.error("Failed to load manga: {}", mangaId, e);
-                JOptionPane.showMessageDialog(
-                        MainFrame.this,
-                        "Failed to load manga: " + e.getMessage(),
-                        "Error",
-                        JOptionPane.ERROR_MESSAGE
-                );
-            }
+            new SwingWorker<Optional<Manga>, Void>() {
+                @Override
+                protected Optional<Manga> doInBackground() throws Exception {
+                    return api.getManga(mangaId);
+                }
+
+                @Override
+                protected void done() {
+                    try {
+                        get().ifPresent(manga -> {
+                            MainFrame.this.currentManga = manga;
+                            chapterList.loadChapters(manga.id());
+                            notifyPluginsMangaLoaded(manga);
+                        });
+                    } catch (Exception e) {
+                        Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+                        logger.error("Failed to load manga: {}", mangaId, cause);
+                        JOptionPane.showMessageDialog(
+                                MainFrame.this,
+                                "Failed to load manga: " + cause.getMessage(),
+                                "Error",
+                                JOptionPane.ERROR_MESSAGE
+                        );
+                    }
+                }
+            }.execute();
         }, options);
+        refreshRecentTitles();
 
         MangaListPanel mangaList = new MangaListPanel(manga -> {
             this.currentManga = manga;
@@ -262,6 +319,10 @@ public class MainFrame extends JFrame {
     private void setupPluginHooks() {
         // Initialize plugins if plugin manager exists
         if (pluginManager != null && pluginContext != null) {
+            // Built-in page filters run in the reader's decode stage like any raster plugin
+            pageFilterPlugin = new PageFilterPlugin(options.getFilterSettings());
+            pluginManager.registerPlugin(pageFilterPlugin, PageFilterPlugin.descriptor());
+
             logger.info("Initializing {} plugin(s)", pluginManager.getPluginCount());
             
             for (ShioriPlugin plugin : pluginManager.getEnabledPlugins()) {
@@ -272,6 +333,9 @@ public class MainFrame extends JFrame {
                     logger.error("Failed to initialize plugin {}: {}", plugin.getName(), e.getMessage());
                 }
             }
+
+            // Image-processing plugins run on the reader's pages as they load
+            reader.setPluginManager(pluginManager);
         }
     }
 
@@ -407,6 +471,26 @@ public class MainFrame extends JFrame {
         advancedMenu.add(clearCacheItem);
         menuBar.add(advancedMenu);
 
+        JMenu viewMenu = new JMenu("View");
+        JCheckBoxMenuItem pagedItem = new JCheckBoxMenuItem("Paged Mode", reader.isPagedMode());
+        pagedItem.addActionListener(e -> reader.setPagedMode(pagedItem.isSelected()));
+        JCheckBoxMenuItem spreadItem = new JCheckBoxMenuItem("Two-Page Spread", new showOptions().isTwoPageSpread());
+        spreadItem.addActionListener(e -> reader.setTwoPageSpread(spreadItem.isSelected()));
+        JMenuItem filtersItem = new JMenuItem("Page Filters...");
+        filtersItem.addActionListener(e -> showPageFilters());
+        JCheckBoxMenuItem hudItem = new JCheckBoxMenuItem("Performance HUD", reader.isPerformanceHudVisible());
+        hudItem.addActionListener(e -> reader.setPerformanceHudVisible(hudItem.isSelected()));
+        JMenuItem timelineItem = new JMenuItem("Load Timeline...");
+        timelineItem.addActionListener(e -> new LoadTimelineWindow(reader::getLoadTimeline));
+        viewMenu.add(pagedItem);
+        viewMenu.add(spreadItem);
+        viewMenu.addSeparator();
+        viewMenu.add(filtersItem);
+        viewMenu.addSeparator();
+        viewMenu.add(hudItem);
+        viewMenu.add(timelineItem);
+        menuBar.add(viewMenu);
+
         JMenu mangaMenu = new JMenu("Manga");
         JMenuItem bookmarksItem = new JMenuItem("Add Bookmark");
         bookmarksItem.addActionListener(e -> {addBookmark();});
@@ -497,12 +581,27 @@ public class MainFrame extends JFrame {
         UIManager.put("OptionPane.messageForeground", null);
     }
 
+    /**
+     * Show the page filter sliders; changes are saved and applied to the pages on screen.
+     */
+    private void showPageFilters() {
+        if (pageFilterPlugin == null) {
+            JOptionPane.showMessageDialog(this, "Page filters need the plugin system", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        new PageFiltersDialog(this, pageFilterPlugin.getSettings(), settings -> {
+            pageFilterPlugin.setSettings(settings);
+            options.setFilterSettings(settings);
+            reader.reprocessPages();
+        }).setVisible(true);
+    }
+
     private void showShortcuts() {
         String shortcuts = """
                 N / Right Arrow: Next Chapter
                 P / Left Arrow: Previous Chapter
-                Space: Page Down
-                Shift + Space: Page Up
+                Space: Page Down (next page in paged mode)
+                Shift + Space: Page Up (previous page in paged mode)
                 Down Arrow: Scroll Down
                 Up Arrow: Scroll Up
                 + or = : Zoom In
@@ -4,19 +4,60 @@ import api.MangaDexClient;
 import model.Manga;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
 import java.util.function.Consumer;
 
 public class MangaListPanel extends JPanel {
 
+    private static final int SEARCH_DEBOUNCE_MS = 300;
+    private static final int MIN_QUERY_LENGTH = 2;
+    private static final int MAX_CACHED_QUERIES = 50;
+    private static final String SEARCH_HINT = "Enter manga name";
+
     private final DefaultListModel<Manga> model = new DefaultListModel<>();
     private final JList<Manga> list = new JList<>(model);
     private final MangaDexClient api = new MangaDexClient();
     private final Consumer<Manga> onSelect;
 
     private final JLabel loadingLabel = new JLabel("Searching...", SwingConstants.CENTER);
-    private final JTextField searchField = new JTextField("Enter manga name and press ENTER");
+    private final JTextField searchField = new JTextField() {
+        // Hint shown while the box is empty; not text, so typing never appends to it
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            if (!getText().isEmpty()) return;
+            Graphics2D g2d = (Graphics2D) g.create();
+            g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            Color hint = UIManager.getColor("TextField.inactiveForeground");
+            g2d.setColor(hint != null ? hint : Color.GRAY);
+            Insets insets = getInsets();
+            FontMetrics metrics = g2d.getFontMetrics();
+            int y = insets.top + (getHeight() - insets.top - insets.bottom - metrics.getHeight()) / 2
+                    + metrics.getAscent();
+            g2d.drawString(SEARCH_HINT, insets.left, y);
+            g2d.dispose();
+        }
+    };
+    private final Timer searchTimer;
+
+    // Recent query -> results, least recently used evicted first
+    private final Map<String, List<Manga>> resultCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<Manga>> eldest) {
+            return size() > MAX_CACHED_QUERIES;
+        }
+    };
+    private SwingWorker<List<Manga>, Void> searchWorker;
+    private String lastQuery = "";
+    private int searchGeneration = 0;
 
     public MangaListPanel(Consumer<Manga> onSelect) {
         this.onSelect = onSelect;
@@ -36,39 +77,31 @@ public class MangaListPanel extends JPanel {
             }
         });
 
-        // Search action
-        searchField.addActionListener(e -> {
-            String query = searchField.getText().trim();
-            if (query.isEmpty()) return;
+        // Search as the user types, once they pause for a moment
+        searchTimer = new Timer(SEARCH_DEBOUNCE_MS, e -> search(false));
+        searchTimer.setRepeats(false);
 
-            // Show loading label while searching
-            showLoading();
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
 
-            // Clear previous results
-            model.clear();
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
 
-            new SwingWorker<List<Manga>, Void>() {
-                @Override
-                protected List<Manga> doInBackground() throws Exception {
-                    return api.searchManga(query);
-                }
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+        });
 
-                @Override
-                protected void done() {
-                    hideLoading();
-                    try {
-                        List<Manga> results = get();
-                        for (Manga m : results) model.addElement(m);
-                    } catch (Exception ex) {
-                        JOptionPane.showMessageDialog(
-                                MangaListPanel.this,
-                                "Failed to search manga: " + ex.getMessage(),
-                                "Error",
-                                JOptionPane.ERROR_MESSAGE
-                        );
-                    }
-                }
-            }.execute();
+        // Enter searches immediately
+        searchField.addActionListener(e -> {
+            searchTimer.stop();
+            search(true);
         });
     }
 
@@ -97,4 +130,121 @@ public class MangaListPanel extends JPanel {
         revalidate();
         repaint();
     }
-}
\ No newline at end of file
+
+    // --- Search helpers ---
+
+    /**
+     * Run a search for the current text, cancelling any search still in flight.
+     * Cached results are shown straight away; results of a cached shorter query
+     * are filtered locally while the network request runs.
+     */
+    private void search(boolean explicit) {
+        String query = searchField.getText().trim();
+        String key = query.toLowerCase(Locale.ROOT);
+        if (query.isEmpty() || (!explicit && query.length() < MIN_QUERY_LENGTH)) {
+            // The old query's results must not arrive after the box was cleared
+            cancelSearch();
+            lastQuery = "";
+            if (query.isEmpty()) {
+                showResults(List.of());
+            } else if (loadingLabel.getParent() == this) {
+                hideLoading();
+            }
+            return;
+        }
+        if (!explicit && key.equals(lastQuery)) return;
+        lastQuery = key;
+
+        // Anything still running belongs to an older query
+        final int generation = cancelSearch();
+
+        List<Manga> cached = resultCache.get(key);
+        if (cached != null) {
+            showResults(cached);
+            return;
+        }
+
+        List<Manga> preview = filterCachedPrefix(key);
+        if (preview != null) {
+            showResults(preview);
+        } else {
+            // Show loading label while searching
+            showLoading();
+            model.clear();
+        }
+
+        searchWorker = new SwingWorker<>() {
+            @Override
+            protected List<Manga> doInBackground() throws Exception {
+                // Searches share one interpreter and run one at a time; skip this one if a
+                // newer query arrived while it was waiting for its turn
+                if (isCancelled()) return List.of();
+                return api.searchManga(query);
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled() || generation != searchGeneration) return;
+                try {
+                    List<Manga> results = get();
+                    resultCache.put(key, results);
+                    showResults(results);
+                } catch (CancellationException ignored) {
+                    // Superseded by a newer query
+                } catch (Exception ex) {
+                    showResults(List.of());
+                    JOptionPane.showMessageDialog(
+                            MangaListPanel.this,
+                            "Failed to search manga: " + ex.getMessage(),
+                            "Error",
+                            JOptionPane.ERROR_MESSAGE
+                    );
+                }
+            }
+        };
+        searchWorker.execute();
+    }
+
+    /**
+     * Drop the search in flight, if any.
+     * @return the generation of the next search
+     */
+    private int cancelSearch() {
+        if (searchWorker != null) {
+            // Not interrupted: a running Jython call cannot be stopped, and interrupting it
+            // mid-request only turns into a "Python fault". Its result is dropped in done().
+            searchWorker.cancel(false);
+        }
+        return ++searchGeneration;
+    }
+
+    /**
+     * Find the longest cached query that the given query extends and filter its results.
+     * @return filtered results, or null if no cached prefix exists
+     */
+    private List<Manga> filterCachedPrefix(String key) {
+        String bestPrefix = null;
+        for (String cachedKey : resultCache.keySet()) {
+            if (key.startsWith(cachedKey) && (bestPrefix == null || cachedKey.length() > bestPrefix.length())) {
+                bestPrefix = cachedKey;
+            }
+        }
+        if (bestPrefix == null) return null;
+
+        List<Manga> filtered = new ArrayList<>();
+        for (Manga m : resultCache.get(bestPrefix)) {
+            if (m.title() != null && m.title().toLowerCase(Locale.ROOT).contains(key)) {
+                filtered.add(m);
+            }
+        }
+        return filtered;
+    }
+
+    private void showResults(List<Manga> results) {
+        if (loadingLabel.getParent() == this) {
+            hideLoading();
+        }
+        model.clear();
+        for (Manga m : results) model.addElement(m);
+    }
+}
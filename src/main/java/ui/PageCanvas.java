@@ -0,0 +1,217 @@
+package ui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * Vertical strip of {@link PageView}s, laid out from a prefix-sum index of page heights.
+ * <p>
+ * A BoxLayout asks every page for its sizes on each layout, so each batch of pages
+ * arriving during a chapter load re-laid out the whole chapter. Here a page whose size
+ * changes reports its index with {@link #pageResized(int)}, and only the offsets from
+ * that page down are recomputed. Finding the page at a y coordinate is a binary search,
+ * and painting only visits the pages that intersect the clip.
+ * <p>
+ * Scrolling relies on the viewport's blit mode: moving the view copies the pixels that
+ * stay on screen inside Swing's (VolatileImage) back buffer, and only the newly exposed
+ * strip is painted. Pages are opaque and never overlap, so Swing can repaint a single
+ * page without painting the canvas behind it.
+ */
+public class PageCanvas extends JComponent implements Scrollable {
+
+    private static final int UNIT_INCREMENT = 16;
+    // Keyboard page-down keeps a little of the previous screen visible
+    private static final int BLOCK_OVERLAP = 50;
+
+    // tops[i] is the y of page i, tops[count] the height of the strip
+    private int[] tops = new int[1];
+    private int[] widths = new int[0];
+    // Offsets are valid for pages before this index
+    private int validCount;
+    // Bounds are up to date for pages before this index
+    private int laidOutCount;
+    private int maxWidth;
+    private int laidOutWidth = -1;
+
+    public PageCanvas() {
+        setLayout(null);
+        setOpaque(true);
+        setBackground(Color.BLACK);
+    }
+
+    /**
+     * Called by a page whose preferred size changed; its offset and those below are recomputed.
+     */
+    public void pageResized(int index) {
+        invalidateFrom(index);
+        revalidate();
+        repaint();
+    }
+
+    /**
+     * @return y of the top of a page in canvas coordinates
+     */
+    public int pageTop(int index) {
+        updateIndex();
+        return tops[Math.max(0, Math.min(index, getComponentCount()))];
+    }
+
+    /**
+     * @return height of a page in canvas coordinates
+     */
+    public int pageHeight(int index) {
+        updateIndex();
+        return tops[index + 1] - tops[index];
+    }
+
+    /**
+     * Index of the page covering the given y coordinate; the first or last page outside the strip.
+     */
+    public int pageAt(int y) {
+        updateIndex();
+        int count = getComponentCount();
+        if (count == 0) return 0;
+        // Last page whose top is at or above y
+        int found = Arrays.binarySearch(tops, 0, count, y);
+        int index = found >= 0 ? found : -found - 2;
+        // Zero-height pages share a top; pick the last of them
+        while (index + 1 < count && tops[index + 1] <= y) index++;
+        return Math.max(0, Math.min(count - 1, index));
+    }
+
+    @Override
+    protected void addImpl(Component comp, Object constraints, int index) {
+        super.addImpl(comp, constraints, index);
+        invalidateFrom(index < 0 ? getComponentCount() - 1 : index);
+    }
+
+    @Override
+    public void remove(int index) {
+        super.remove(index);
+        invalidateFrom(index);
+    }
+
+    @Override
+    public void removeAll() {
+        super.removeAll();
+        invalidateFrom(0);
+    }
+
+    private void invalidateFrom(int index) {
+        validCount = Math.min(validCount, index);
+        laidOutCount = Math.min(laidOutCount, index);
+    }
+
+    /**
+     * Recompute the offsets below the first resized page. Only those pages are asked for
+     * their size; the widest page is found from the widths kept per page.
+     */
+    private void updateIndex() {
+        int count = getComponentCount();
+        if (validCount >= count) return;
+
+        if (tops.length < count + 1) {
+            int capacity = Math.max(count + 1, tops.length * 2);
+            tops = Arrays.copyOf(tops, capacity);
+            widths = Arrays.copyOf(widths, capacity);
+        }
+        for (int i = validCount; i < count; i++) {
+            Dimension size = getComponent(i).getPreferredSize();
+            tops[i + 1] = tops[i] + size.height;
+            widths[i] = size.width;
+        }
+        int widest = 0;
+        for (int i = 0; i < count; i++) {
+            widest = Math.max(widest, widths[i]);
+        }
+        maxWidth = widest;
+        validCount = count;
+    }
+
+    @Override
+    public void doLayout() {
+        updateIndex();
+        int width = getWidth();
+        // A new canvas width moves every page sideways; otherwise only the pages below the change move
+        int from = width != laidOutWidth ? 0 : laidOutCount;
+        laidOutWidth = width;
+        int count = getComponentCount();
+        for (int i = from; i < count; i++) {
+            int pageWidth = widths[i];
+            getComponent(i).setBounds(Math.max(0, (width - pageWidth) / 2), tops[i], pageWidth, tops[i + 1] - tops[i]);
+        }
+        laidOutCount = count;
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        if (isPreferredSizeSet()) return super.getPreferredSize();
+        updateIndex();
+        return new Dimension(maxWidth, tops[getComponentCount()]);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+    }
+
+    /**
+     * Paint only the pages that intersect the clip, found by binary search.
+     */
+    @Override
+    protected void paintChildren(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        int count = getComponentCount();
+        if (clip == null || count == 0) return;
+
+        int last = pageAt(clip.y + clip.height - 1);
+        for (int i = pageAt(clip.y); i <= last; i++) {
+            Component page = getComponent(i);
+            Rectangle bounds = page.getBounds();
+            if (!page.isVisible() || !bounds.intersects(clip)) continue;
+            Graphics pageGraphics = g.create(bounds.x, bounds.y, bounds.width, bounds.height);
+            try {
+                page.paint(pageGraphics);
+            } finally {
+                pageGraphics.dispose();
+            }
+        }
+    }
+
+    @Override
+    public boolean isOptimizedDrawingEnabled() {
+        return true;
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return UNIT_INCREMENT;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        int extent = orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+        return Math.max(UNIT_INCREMENT, extent - BLOCK_OVERLAP);
+    }
+
+    /**
+     * Pages narrower than the viewport are centered in it rather than scrolled.
+     */
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return getParent() instanceof JViewport viewport && viewport.getWidth() > getPreferredSize().width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return getParent() instanceof JViewport viewport && viewport.getHeight() > getPreferredSize().height;
+    }
+}
@@ -0,0 +1,90 @@
+package ui;
+
+import reader.filter.FilterSettings;
+import reader.filter.PageFilters;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.function.Consumer;
+
+/**
+ * Sliders for the built-in page filters. Settings are applied when a slider is released,
+ * so the pages on screen are filtered again once per change rather than per tick.
+ */
+public class PageFiltersDialog extends JDialog {
+
+    private final Consumer<FilterSettings> onChange;
+    private final JSlider brightness = new JSlider(-100, 100, 0);
+    // Percent
+    private final JSlider contrast = new JSlider(50, 200, 100);
+    private final JSlider gamma = new JSlider(50, 250, 100);
+    private final JSlider sharpen = new JSlider(0, 100, 0);
+    private final JCheckBox grayscale = new JCheckBox("Grayscale");
+    // Set while the controls are changed in code, so they are applied once afterwards
+    private boolean updating;
+
+    /**
+     * @param settings the current adjustments
+     * @param onChange receives the new adjustments, on the EDT
+     */
+    public PageFiltersDialog(Frame owner, FilterSettings settings, Consumer<FilterSettings> onChange) {
+        super(owner, "Page Filters", false);
+        this.onChange = onChange;
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+        setControls(settings);
+
+        JPanel sliders = new JPanel(new GridLayout(0, 2, 8, 4));
+        sliders.setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
+        addRow(sliders, "Brightness", brightness);
+        addRow(sliders, "Contrast %", contrast);
+        addRow(sliders, "Gamma %", gamma);
+        addRow(sliders, "Sharpen %", sharpen);
+        sliders.add(grayscale);
+        grayscale.addActionListener(e -> apply());
+
+        JButton reset = new JButton("Reset");
+        reset.addActionListener(e -> {
+            setControls(FilterSettings.NONE);
+            apply();
+        });
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(new JLabel(PageFilters.getInstance().isVectorized() ? "Vector API" : "Scalar"));
+        buttons.add(reset);
+
+        setLayout(new BorderLayout());
+        add(sliders, BorderLayout.CENTER);
+        add(buttons, BorderLayout.SOUTH);
+        pack();
+        setLocationRelativeTo(owner);
+    }
+
+    private void addRow(JPanel panel, String label, JSlider slider) {
+        panel.add(new JLabel(label));
+        panel.add(slider);
+        slider.addChangeListener(e -> {
+            if (!slider.getValueIsAdjusting()) apply();
+        });
+    }
+
+    /**
+     * Show settings in the controls without applying them.
+     */
+    private void setControls(FilterSettings settings) {
+        updating = true;
+        try {
+            brightness.setValue(settings.brightness());
+            contrast.setValue((int) Math.round(settings.contrast() * 100));
+            gamma.setValue((int) Math.round(settings.gamma() * 100));
+            sharpen.setValue((int) Math.round(settings.sharpen() * 100));
+            grayscale.setSelected(settings.grayscale());
+        } finally {
+            updating = false;
+        }
+    }
+
+    private void apply() {
+        if (updating) return;
+        onChange.accept(new FilterSettings(brightness.getValue(), contrast.getValue() / 100.0,
+                gamma.getValue() / 100.0, sharpen.getValue() / 100.0, grayscale.isSelected()));
+    }
+}
@@ -0,0 +1,459 @@
+package ui;
+
+import reader.LoadTimeline;
+import reader.PageImages;
+import reader.PageTiles;
+import reader.PixelPool;
+import reader.ReaderExecutors;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+/**
+ * One page of the reader strip. The component always has the page's real size
+ * (source size times zoom), but only holds pixels while the page is near the
+ * viewport; otherwise it paints a placeholder of the same size. Until the real
+ * size is known (from the image header) the page is laid out at an estimate.
+ * <p>
+ * Pixels are scaled by the Graphics2D transform at paint time, which is cheap enough
+ * for interactive zoom. Once the zoom settles, {@link #prepareScaled()} renders a
+ * high-quality copy at the exact size in the background and paints that instead.
+ * <p>
+ * Very tall pages (see {@link PageTiles}) never hold a whole image: their pixels arrive
+ * as tiles, each drawn into its band of the page, and only the tiles near the viewport
+ * are kept.
+ * <p>
+ * The view holds its own {@link PixelPool} reference to the pixels it shows and to its
+ * scaled copy, and gives them back when they are replaced or released.
+ */
+public class PageView extends JComponent {
+
+    // Size used for pages whose dimensions could not be read
+    private static final int FALLBACK_WIDTH = 800;
+    private static final int FALLBACK_HEIGHT = 1200;
+
+    private static final PixelPool pool = PixelPool.getInstance();
+
+    private final int pageIndex;
+    private int sourceWidth;
+    private int sourceHeight;
+    private boolean sizeKnown;
+    private boolean failed;
+    private final boolean evictable;
+    private double zoom;
+    private BufferedImage image;
+    private BufferedImage scaled;
+    private int imageSubsampling = 1;
+    private boolean preview;
+    private boolean scalePending;
+    // Decoded tiles of a tiled page and the subsampling each was decoded with, by tile index
+    private BufferedImage[] tiles;
+    private int[] tileSubsamplings;
+    // Chapter load this page belongs to, for scale and first-paint times
+    private LoadTimeline timeline;
+
+    /**
+     * @param pageIndex zero-based page index
+     * @param sourceWidth page width in pixels (real or estimated), or 0 if unknown
+     * @param sourceHeight page height in pixels (real or estimated), or 0 if unknown
+     * @param sizeKnown whether the size is the page's real size rather than an estimate
+     * @param zoom current zoom factor
+     * @param evictable whether the pixels can be released and decoded again later
+     */
+    public PageView(int pageIndex, int sourceWidth, int sourceHeight, boolean sizeKnown, double zoom, boolean evictable) {
+        this.pageIndex = pageIndex;
+        boolean hasSize = sourceWidth > 0 && sourceHeight > 0;
+        this.sourceWidth = hasSize ? sourceWidth : FALLBACK_WIDTH;
+        this.sourceHeight = hasSize ? sourceHeight : FALLBACK_HEIGHT;
+        this.sizeKnown = hasSize && sizeKnown;
+        this.zoom = zoom;
+        this.evictable = evictable;
+        setAlignmentX(Component.CENTER_ALIGNMENT);
+        setOpaque(true);
+        setBackground(Color.BLACK);
+    }
+
+    /**
+     * Record this page's scale and first-paint times in a load's timeline.
+     */
+    public void setTimeline(LoadTimeline timeline) {
+        this.timeline = timeline;
+    }
+
+    public int getPageIndex() {
+        return pageIndex;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * Mark the page as not loadable. It keeps its current size so nothing below it moves.
+     */
+    public void markFailed() {
+        failed = true;
+        repaint();
+    }
+
+    public boolean isSizeKnown() {
+        return sizeKnown;
+    }
+
+    /**
+     * Replace the estimated size with the page's real size.
+     * @return true if the displayed size changed
+     */
+    public boolean setSourceSize(int width, int height) {
+        sizeKnown = true;
+        if (width == sourceWidth && height == sourceHeight) {
+            return false;
+        }
+        sourceWidth = width;
+        sourceHeight = height;
+        replaceScaled(null);
+        releaseTiles();
+        sizeChanged();
+        return true;
+    }
+
+    public boolean isEvictable() {
+        return evictable;
+    }
+
+    /**
+     * @return the pixels shown, without taking a pool reference; null if there are none
+     */
+    BufferedImage getImage() {
+        return image;
+    }
+
+    public boolean hasImage() {
+        return image != null;
+    }
+
+    /**
+     * @return true if the page shows its real pixels rather than nothing or a preview
+     */
+    public boolean hasFullImage() {
+        return image != null && !preview;
+    }
+
+    /**
+     * @return full-resolution width of the page, independent of how it was decoded
+     */
+    public int getSourceWidth() {
+        return sourceWidth;
+    }
+
+    public int getSourceHeight() {
+        return sourceHeight;
+    }
+
+    /**
+     * @return source subsampling the current pixels were decoded with, 1 for full resolution
+     */
+    public int getImageSubsampling() {
+        return imageSubsampling;
+    }
+
+    /**
+     * Attach full-resolution pixels to this page.
+     */
+    public void setImage(BufferedImage image) {
+        setImage(image, 1);
+    }
+
+    /**
+     * Attach decoded pixels to this page. They are always drawn at the page's full display size.
+     * @param subsampling source subsampling the pixels were decoded with
+     */
+    public void setImage(BufferedImage image, int subsampling) {
+        replaceImage(image);
+        this.imageSubsampling = subsampling;
+        this.preview = false;
+        repaint();
+    }
+
+    /**
+     * Show a low-resolution stand-in until the real pixels arrive. Ignored once the page has them.
+     */
+    public void setPreview(BufferedImage image) {
+        if (hasFullImage()) return;
+        replaceImage(image);
+        this.imageSubsampling = 1;
+        this.preview = true;
+        repaint();
+    }
+
+    /**
+     * Drop the pixels of a page that has left the viewport. The component keeps its size.
+     */
+    public void releaseImage() {
+        if (evictable && image != null) {
+            replaceImage(null);
+            preview = false;
+            repaint();
+        }
+        if (tiles != null) {
+            releaseTiles();
+            repaint();
+        }
+    }
+
+    /**
+     * @return true if the page is decoded in tiles rather than as one image
+     */
+    public boolean isTiled() {
+        return evictable && sizeKnown && PageTiles.isTiled(sourceWidth, sourceHeight);
+    }
+
+    /**
+     * Tiles a part of the component shows.
+     * @param area rectangle in component coordinates
+     * @return {first, last} tile index, or null if the area does not overlap the page
+     */
+    public int[] tilesIn(Rectangle area) {
+        int height = getHeight();
+        if (height <= 0) return null;
+        int top = (int) ((long) area.y * sourceHeight / height);
+        int bottom = (int) (((long) (area.y + area.height) * sourceHeight + height - 1) / height);
+        return PageTiles.tilesBetween(top, bottom, sourceHeight);
+    }
+
+    /**
+     * @return subsampling the tile was decoded with, or 0 if it holds no pixels
+     */
+    public int getTileSubsampling(int tile) {
+        return tiles != null && tiles[tile] != null ? tileSubsamplings[tile] : 0;
+    }
+
+    /**
+     * Attach the pixels of one tile. Ignored if the page is no longer tiled.
+     * @param subsampling source subsampling the tile was decoded with
+     */
+    public void setTile(int tile, BufferedImage tileImage, int subsampling) {
+        if (!isTiled() || tile >= PageTiles.tileCount(sourceHeight)) return;
+        if (tiles == null) {
+            tiles = new BufferedImage[PageTiles.tileCount(sourceHeight)];
+            tileSubsamplings = new int[tiles.length];
+        }
+        if (tiles[tile] != tileImage) {
+            pool.retain(tileImage);
+            pool.release(tiles[tile]);
+            tiles[tile] = tileImage;
+        }
+        tileSubsamplings[tile] = subsampling;
+        repaint();
+    }
+
+    /**
+     * Drop the tiles outside the given range, keeping memory proportional to the viewport.
+     */
+    public void releaseTilesOutside(int first, int last) {
+        if (tiles == null) return;
+        for (int i = 0; i < tiles.length; i++) {
+            if ((i < first || i > last) && tiles[i] != null) {
+                pool.release(tiles[i]);
+                tiles[i] = null;
+            }
+        }
+    }
+
+    private void releaseTiles() {
+        if (tiles == null) return;
+        for (BufferedImage tile : tiles) {
+            pool.release(tile);
+        }
+        tiles = null;
+        tileSubsamplings = null;
+    }
+
+    private void replaceImage(BufferedImage newImage) {
+        if (newImage != image) {
+            pool.retain(newImage);
+            pool.release(image);
+            image = newImage;
+        }
+        replaceScaled(null);
+    }
+
+    private void replaceScaled(BufferedImage newScaled) {
+        if (scaled != null && scaled != newScaled) {
+            pool.release(scaled);
+        }
+        scaled = newScaled;
+    }
+
+    public void setZoom(double zoom) {
+        if (this.zoom != zoom) {
+            this.zoom = zoom;
+            replaceScaled(null);
+            sizeChanged();
+        }
+    }
+
+    /**
+     * Render a high-quality copy of the pixels at the current display size off the EDT.
+     * Does nothing if there are no pixels, no scaling is needed or a copy is already there.
+     * Must be called on the EDT.
+     */
+    public void prepareScaled() {
+        if (image == null || preview || scalePending) return;
+
+        final BufferedImage source = image;
+        final Dimension size = getPreferredSize();
+        if (size.width == source.getWidth() && size.height == source.getHeight()) return;
+        if (scaled != null && scaled.getWidth() == size.width && scaled.getHeight() == size.height) return;
+
+        scalePending = true;
+        final GraphicsConfiguration configuration = getGraphicsConfiguration();
+        final LoadTimeline timeline = this.timeline;
+        // Keep the source pixels out of the pool while they are being read
+        pool.retain(source);
+        ReaderExecutors.decodePool().execute(() -> {
+            BufferedImage result;
+            try {
+                long start = System.nanoTime();
+                result = scale(source, size.width, size.height, configuration);
+                if (timeline != null) timeline.scaled(pageIndex, start);
+            } finally {
+                pool.release(source);
+            }
+            SwingUtilities.invokeLater(() -> {
+                scalePending = false;
+                // Drop the copy if the pixels or the zoom changed meanwhile
+                if (image == source && size.equals(getPreferredSize())) {
+                    replaceScaled(result);
+                    repaint();
+                } else {
+                    pool.release(result);
+                    prepareScaled();
+                }
+            });
+        });
+    }
+
+    private void sizeChanged() {
+        if (getParent() instanceof PageCanvas canvas) {
+            canvas.pageResized(pageIndex);
+        }
+        revalidate();
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(Math.max(1, (int) (sourceWidth * zoom)), Math.max(1, (int) (sourceHeight * zoom)));
+    }
+
+    @Override
+    public Dimension getMaximumSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public Dimension getMinimumSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        int width = getWidth();
+        int height = getHeight();
+        g.setColor(getBackground());
+        g.fillRect(0, 0, width, height);
+
+        if (tiles != null) {
+            paintTiles(g, width, height);
+            return;
+        }
+
+        if (image != null && !preview && timeline != null) {
+            timeline.painted(pageIndex);
+        }
+        if (image != null) {
+            if (scaled != null && scaled.getWidth() == width && scaled.getHeight() == height) {
+                g.drawImage(scaled, 0, 0, null);
+            } else if (image.getWidth() == width && image.getHeight() == height) {
+                g.drawImage(image, 0, 0, null);
+            } else {
+                // Interactive zoom: let Java2D scale while drawing instead of allocating a copy
+                Graphics2D g2d = (Graphics2D) g.create();
+                g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g2d.drawImage(image, AffineTransform.getScaleInstance(
+                        (double) width / image.getWidth(), (double) height / image.getHeight()), null);
+                g2d.dispose();
+            }
+            return;
+        }
+
+        // Placeholder with the page's real size, so the strip never jumps
+        g.setColor(new Color(30, 30, 30));
+        g.fillRect(4, 4, Math.max(0, width - 8), Math.max(0, height - 8));
+        g.setColor(Color.GRAY);
+        String text = failed ? "Page " + (pageIndex + 1) + " could not be loaded" : "Page " + (pageIndex + 1);
+        FontMetrics metrics = g.getFontMetrics();
+        g.drawString(text, (width - metrics.stringWidth(text)) / 2, height / 2);
+    }
+
+    /**
+     * Tiled page: each decoded tile is drawn into its band; bands without pixels show the
+     * preview if there is one and stay blank otherwise.
+     */
+    private void paintTiles(Graphics g, int width, int height) {
+        Rectangle clip = g.getClipBounds();
+        Graphics2D g2d = (Graphics2D) g.create();
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        if (image != null) {
+            g2d.drawImage(image, 0, 0, width, height, null);
+        }
+        for (int i = 0; i < tiles.length; i++) {
+            if (tiles[i] == null) continue;
+            Rectangle region = PageTiles.region(i, sourceWidth, sourceHeight);
+            int top = (int) ((long) region.y * height / sourceHeight);
+            int bottom = (int) ((long) (region.y + region.height) * height / sourceHeight);
+            if (clip != null && (bottom <= clip.y || top >= clip.y + clip.height)) continue;
+            g2d.drawImage(tiles[i], 0, top, width, bottom - top, null);
+            if (timeline != null) timeline.painted(pageIndex);
+        }
+        g2d.dispose();
+    }
+
+    /**
+     * High-quality rescale. Large reductions are done in halving steps, since a single
+     * bicubic pass only samples a few source pixels and aliases screentones.
+     * @return a pooled image holding one reference for the caller
+     */
+    static BufferedImage scale(BufferedImage source, int width, int height, GraphicsConfiguration configuration) {
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+            if (current.getWidth() <= width || current.getHeight() <= height) {
+                // Upscaling (or the last step) goes straight to the target size
+                currentWidth = width;
+                currentHeight = height;
+            }
+
+            // Same family as the source: byte gray stays gray, colour goes to the screen's opaque format
+            BufferedImage step = PageImages.createTarget(source, currentWidth, currentHeight, configuration, pool);
+            Graphics2D g2d = step.createGraphics();
+            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g2d.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            g2d.dispose();
+            if (current != source) {
+                // Intermediate halving steps go straight back to the pool
+                pool.release(current);
+            }
+            current = step;
+        } while (currentWidth != width || currentHeight != height);
+
+        return current;
+    }
+}
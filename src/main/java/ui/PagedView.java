@@ -0,0 +1,302 @@
+package ui;
+
+import reader.LoadTimeline;
+import reader.PageRing;
+import reader.PixelPool;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntFunction;
+
+/**
+ * Paged reading: one page, or a two-page spread, fitted to the component.
+ * <p>
+ * The pages shown and a fixed number of spreads before and after them are kept as
+ * frames already scaled to their on-screen size, in a {@link PageRing}. Turning the
+ * page only changes which frames are painted; the frames that fall out of the window
+ * are released and the ones that enter it are requested in the background, nearest
+ * first. Memory stays at a few screens' worth of pixels however long the chapter is.
+ * <p>
+ * Spreads are laid out right to left, as manga are read.
+ */
+public class PagedView extends JComponent {
+
+    /**
+     * Produces a frame of a page at the given size in device pixels, off the EDT.
+     * Returns null if the page cannot be loaded yet; the frame carries one pool reference
+     * that passes to the view.
+     */
+    @FunctionalInterface
+    public interface FrameLoader {
+        CompletableFuture<BufferedImage> load(int pageIndex, int width, int height);
+    }
+
+    private static final PixelPool pool = PixelPool.getInstance();
+
+    private final int neighbours;
+    private final FrameLoader loader;
+    private final IntFunction<Dimension> pageSize;
+    // Sized for two-page spreads, so switching spreads on and off keeps it
+    private final PageRing<BufferedImage> frames;
+    // Outstanding frame requests by page. A result is kept only if its own request is still
+    // the one here: matching on the size alone would let a frame requested before clear()
+    // (another chapter, or pages under old filters) pass for a new request at the same size.
+    private final Map<Integer, FrameRequest> pending = new HashMap<>();
+    private int pageCount;
+    private int firstPage;
+    private boolean spread;
+    private LoadTimeline timeline;
+
+    /**
+     * @param neighbours spreads kept ready before and after the one shown
+     * @param loader produces frames
+     * @param pageSize full-resolution size of a page
+     */
+    public PagedView(int neighbours, FrameLoader loader, IntFunction<Dimension> pageSize) {
+        this.neighbours = neighbours;
+        this.loader = loader;
+        this.pageSize = pageSize;
+        this.frames = new PageRing<>((2 * neighbours + 1) * 2);
+        setOpaque(true);
+        setBackground(Color.BLACK);
+        setFocusable(false);
+
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                // Old frames are stretched until the ones at the new size arrive
+                requestFrames();
+            }
+        });
+    }
+
+    /**
+     * Show a chapter of the given length, starting at a page.
+     */
+    public void open(int pageCount, int pageIndex) {
+        this.pageCount = pageCount;
+        showPage(pageIndex);
+    }
+
+    /**
+     * Record first-paint times of the frames in a load's timeline.
+     */
+    public void setTimeline(LoadTimeline timeline) {
+        this.timeline = timeline;
+    }
+
+    public void setSpread(boolean spread) {
+        if (this.spread != spread) {
+            this.spread = spread;
+            showPage(firstPage);
+        }
+    }
+
+    /**
+     * @return index of the (right-hand) page shown
+     */
+    public int getFirstPage() {
+        return firstPage;
+    }
+
+    public boolean isAtLastPage() {
+        return firstPage + step() >= pageCount;
+    }
+
+    /**
+     * Show the spread starting at a page, keeping its neighbours ready.
+     */
+    public void showPage(int pageIndex) {
+        firstPage = Math.max(0, Math.min(pageIndex, pageCount - 1));
+        int from = firstPage - neighbours * step();
+        int to = firstPage + (neighbours + 1) * step() - 1;
+        frames.retainRange(from, to).forEach(pool::release);
+        pending.keySet().removeIf(index -> index < from || index > to);
+        repaint();
+        requestFrames();
+    }
+
+    /**
+     * @return true if the page changed
+     */
+    public boolean next() {
+        if (isAtLastPage()) return false;
+        showPage(firstPage + step());
+        return true;
+    }
+
+    /**
+     * @return true if the page changed
+     */
+    public boolean previous() {
+        if (firstPage == 0) return false;
+        showPage(Math.max(0, firstPage - step()));
+        return true;
+    }
+
+    /**
+     * A page's data has become available; load its frame if it is in the window.
+     */
+    public void pageAvailable(int pageIndex) {
+        int from = firstPage - neighbours * step();
+        int to = firstPage + (neighbours + 1) * step() - 1;
+        if (pageIndex >= from && pageIndex <= to) {
+            requestFrame(pageIndex);
+        }
+    }
+
+    /**
+     * Drop every frame, e.g. when the chapter changes.
+     */
+    public void clear() {
+        frames.clear().forEach(pool::release);
+        pending.clear();
+        pageCount = 0;
+        firstPage = 0;
+        repaint();
+    }
+
+    /**
+     * @return the frame kept for a page, or null
+     */
+    BufferedImage getFrame(int pageIndex) {
+        return frames.get(pageIndex);
+    }
+
+    private int step() {
+        return spread ? 2 : 1;
+    }
+
+    /**
+     * Request the missing or wrongly sized frames of the window: the shown spread first,
+     * then the following spreads, then the previous ones.
+     */
+    private void requestFrames() {
+        for (int offset = 0; offset < step(); offset++) {
+            requestFrame(firstPage + offset);
+        }
+        for (int distance = 1; distance <= neighbours; distance++) {
+            for (int offset = 0; offset < step(); offset++) {
+                requestFrame(firstPage + distance * step() + offset);
+                requestFrame(firstPage - distance * step() + offset);
+            }
+        }
+    }
+
+    private void requestFrame(int pageIndex) {
+        if (pageIndex < 0 || pageIndex >= pageCount) return;
+        Dimension size = frameSize(pageIndex);
+        if (size == null) return;
+
+        BufferedImage frame = frames.get(pageIndex);
+        if (frame != null && frame.getWidth() == size.width && frame.getHeight() == size.height) return;
+        FrameRequest outstanding = pending.get(pageIndex);
+        if (outstanding != null && outstanding.size.equals(size)) return;
+
+        CompletableFuture<BufferedImage> future = loader.load(pageIndex, size.width, size.height);
+        if (future == null) return;
+        FrameRequest request = new FrameRequest(size);
+        pending.put(pageIndex, request);
+        future.whenComplete((image, error) -> SwingUtilities.invokeLater(() -> {
+            if (pending.get(pageIndex) != request) {
+                // Superseded, or the page left the window
+                pool.release(image);
+                return;
+            }
+            pending.remove(pageIndex);
+            if (image != null) {
+                pool.release(frames.put(pageIndex, image));
+                repaint();
+            }
+        }));
+    }
+
+    /**
+     * Size of a page's frame in device pixels, fitted into its half (spread) or all of the view.
+     */
+    private Dimension frameSize(int pageIndex) {
+        Rectangle box = pageRect(pageIndex);
+        if (box == null) return null;
+        double deviceScale = deviceScale();
+        return new Dimension(Math.max(1, (int) Math.round(box.width * deviceScale)),
+                Math.max(1, (int) Math.round(box.height * deviceScale)));
+    }
+
+    /**
+     * Where a page of the current spread (or of one in the window) is drawn, in component coordinates.
+     */
+    private Rectangle pageRect(int pageIndex) {
+        Dimension source = pageSize.apply(pageIndex);
+        int width = getWidth();
+        int height = getHeight();
+        if (source == null || source.width <= 0 || source.height <= 0 || width <= 0 || height <= 0) return null;
+
+        int offset = Math.floorMod(pageIndex - firstPage, step());
+        boolean paired = spread && pageCount > 1;
+        int boxWidth = paired ? width / 2 : width;
+        double scale = Math.min((double) boxWidth / source.width, (double) height / source.height);
+        int pageWidth = Math.max(1, (int) (source.width * scale));
+        int pageHeight = Math.max(1, (int) (source.height * scale));
+        int y = (height - pageHeight) / 2;
+        if (!paired) {
+            return new Rectangle((width - pageWidth) / 2, y, pageWidth, pageHeight);
+        }
+        // Right to left: the first page of the spread sits right of the gutter
+        int x = offset == 0 ? width / 2 : width / 2 - pageWidth;
+        return new Rectangle(x, y, pageWidth, pageHeight);
+    }
+
+    private double deviceScale() {
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+        return configuration != null ? configuration.getDefaultTransform().getScaleX() : 1.0;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        g.setColor(getBackground());
+        g.fillRect(0, 0, getWidth(), getHeight());
+
+        for (int offset = 0; offset < step() && firstPage + offset < pageCount; offset++) {
+            int pageIndex = firstPage + offset;
+            Rectangle rect = pageRect(pageIndex);
+            if (rect == null) continue;
+
+            BufferedImage frame = frames.get(pageIndex);
+            if (frame != null) {
+                Graphics2D g2d = (Graphics2D) g.create();
+                // Frames are in device pixels: draw them 1:1 when they match, stretched otherwise
+                g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g2d.translate(rect.x, rect.y);
+                g2d.scale((double) rect.width / frame.getWidth(), (double) rect.height / frame.getHeight());
+                g2d.drawImage(frame, 0, 0, null);
+                g2d.dispose();
+                if (timeline != null) timeline.painted(pageIndex);
+                continue;
+            }
+
+            g.setColor(new Color(30, 30, 30));
+            g.fillRect(rect.x, rect.y, rect.width, rect.height);
+            g.setColor(Color.GRAY);
+            String text = "Page " + (pageIndex + 1);
+            FontMetrics metrics = g.getFontMetrics();
+            g.drawString(text, rect.x + (rect.width - metrics.stringWidth(text)) / 2, rect.y + rect.height / 2);
+        }
+    }
+
+    /**
+     * One frame request; compared by identity.
+     */
+    private static final class FrameRequest {
+        final Dimension size;
+
+        FrameRequest(Dimension size) {
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package ui;
+
+import reader.LoadTimeline;
+
+import javax.swing.*;
+import javax.swing.plaf.LayerUI;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Opt-in overlay over the reader with the current page's load timings and the chapter's
+ * totals, refreshed twice a second while shown. Only the box is repainted on refresh,
+ * so the pages under it are not redrawn.
+ */
+public class PerformanceHud extends LayerUI<JComponent> {
+
+    private static final int REFRESH_MILLIS = 500;
+    private static final Color BACKGROUND = new Color(0, 0, 0, 180);
+
+    private final Supplier<LoadTimeline> timeline;
+    private final IntSupplier currentPage;
+    private final IntSupplier pageCount;
+    private final Timer refreshTimer;
+    private JLayer<?> layer;
+    private boolean visible;
+    // Where the box was last painted, in layer coordinates; null before the first paint
+    private Rectangle box;
+
+    /**
+     * @param timeline the chapter load shown, or null
+     * @param currentPage index of the page being read
+     * @param pageCount pages in the chapter
+     */
+    public PerformanceHud(Supplier<LoadTimeline> timeline, IntSupplier currentPage, IntSupplier pageCount) {
+        this.timeline = timeline;
+        this.currentPage = currentPage;
+        this.pageCount = pageCount;
+        this.refreshTimer = new Timer(REFRESH_MILLIS, e -> refresh());
+    }
+
+    @Override
+    public void installUI(JComponent c) {
+        super.installUI(c);
+        layer = (JLayer<?>) c;
+    }
+
+    @Override
+    public void uninstallUI(JComponent c) {
+        refreshTimer.stop();
+        layer = null;
+        box = null;
+        super.uninstallUI(c);
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    public void setVisible(boolean visible) {
+        this.visible = visible;
+        if (visible) {
+            refreshTimer.start();
+        } else {
+            refreshTimer.stop();
+        }
+        if (layer != null) layer.repaint();
+        if (!visible) box = null;
+    }
+
+    private void refresh() {
+        if (layer == null) return;
+        if (box != null) {
+            layer.repaint(box);
+        } else {
+            layer.repaint();
+        }
+    }
+
+    @Override
+    public void paint(Graphics g, JComponent c) {
+        super.paint(g, c);
+        LoadTimeline current = timeline.get();
+        if (!visible || current == null) return;
+
+        List<String> lines = lines(current);
+        Graphics2D g2d = (Graphics2D) g.create();
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2d.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        FontMetrics metrics = g2d.getFontMetrics();
+        int width = 0;
+        for (String line : lines) {
+            width = Math.max(width, metrics.stringWidth(line));
+        }
+        int lineHeight = metrics.getHeight();
+        int boxWidth = width + 16;
+        int boxHeight = lines.size() * lineHeight + 12;
+        // Top right, clear of the vertical scroll bar
+        int x = c.getWidth() - boxWidth - 24;
+        int y = 8;
+        Rectangle bounds = new Rectangle(x, y, boxWidth, boxHeight);
+        if (box != null && !box.contains(bounds)) {
+            // The box grew past the repainted area; draw the rest on the next pass
+            c.repaint(bounds.union(box));
+        }
+        box = bounds;
+
+        g2d.setColor(BACKGROUND);
+        g2d.fillRoundRect(x, y, boxWidth, boxHeight, 8, 8);
+        g2d.setColor(Color.WHITE);
+        for (int i = 0; i < lines.size(); i++) {
+            g2d.drawString(lines.get(i), x + 8, y + 6 + metrics.getAscent() + i * lineHeight);
+        }
+        g2d.dispose();
+    }
+
+    private List<String> lines(LoadTimeline current) {
+        List<String> lines = new ArrayList<>();
+        int pageIndex = currentPage.getAsInt();
+        LoadTimeline.PageTiming page = current.getPage(pageIndex);
+        if (page != null && page.source() != null) {
+            lines.add(String.format("Page %d / %d  %s  %s", pageIndex + 1, pageCount.getAsInt(),
+                    page.source().name().toLowerCase(), kib(page.bytes())));
+        } else {
+            lines.add(String.format("Page %d / %d", pageIndex + 1, pageCount.getAsInt()));
+        }
+        if (page != null) {
+            lines.add("fetch " + millis(page.fetchMillis()) + "  plugins " + millis(page.processMillis())
+                    + "  decode " + millis(page.decodeMillis()) + "  scale " + millis(page.scaleMillis()));
+            lines.add("painted at " + seconds(page.paintedAtMillis()));
+        }
+
+        StringBuilder stages = new StringBuilder();
+        for (LoadTimeline.Stage stage : current.getStages()) {
+            if (!stages.isEmpty()) stages.append("  ");
+            stages.append(stage.name()).append(' ').append(stage.millis()).append(" ms");
+        }
+        if (!stages.isEmpty()) lines.add(stages.toString());
+
+        LoadTimeline.Summary summary = current.summarize();
+        int[] sources = summary.sources();
+        lines.add(String.format("Chapter: %d memory / %d disk / %d network  %s",
+                sources[LoadTimeline.Source.MEMORY.ordinal()], sources[LoadTimeline.Source.DISK.ordinal()],
+                sources[LoadTimeline.Source.NETWORK.ordinal()], kib(summary.bytes())));
+        lines.add("avg fetch " + millis(summary.meanFetchMillis()) + "  decode " + millis(summary.meanDecodeMillis())
+                + "  scale " + millis(summary.meanScaleMillis()) + "  first paint " + seconds(summary.firstPaintMillis()));
+        return lines;
+    }
+
+    static String millis(long millis) {
+        return millis < 0 ? "-" : millis + " ms";
+    }
+
+    static String seconds(long millis) {
+        return millis < 0 ? "-" : String.format("%.2f s", millis / 1000.0);
+    }
+
+    static String kib(long bytes) {
+        if (bytes < 0) return "-";
+        return bytes >= 1024 * 1024 ? String.format("%.1f MiB", bytes / (1024.0 * 1024)) : (bytes / 1024) + " KiB";
+    }
+}
@@ -2,20 +2,46 @@ package ui;
 
 import api.CacheManager;
 import api.MangaDexClient;
+import api.PageSizeCache;
 import model.Chapter;
+import model.ChapterManifest;
+import plugin.PluginManager;
+import reader.DecodedPage;
+import reader.LoadSession;
+import reader.LoadTimeline;
+import reader.PageDecoder;
+import reader.PageImages;
+import reader.PageLoadPipeline;
+import reader.PageTiles;
+import reader.PixelPool;
+import reader.ReaderExecutors;
+import reader.ReadingPace;
+import reader.WeightedLruCache;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.awt.event.MouseWheelEvent;
 import java.awt.event.MouseWheelListener;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.InputStream;
-import java.net.URL;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.HashSet;
 import java.util.List;
-import javax.imageio.ImageIO;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -23,12 +49,78 @@ public class ReaderPanel extends JPanel {
 
     private static final Logger logger = LogManager.getLogger(ReaderPanel.class);
 
-    private final JPanel pagesPanel;
+    // Pages kept decoded above and below the visible ones
+    private static final int RESIDENT_MARGIN = 2;
+    // Compressed page bytes are 10-20x smaller than their pixels, so whole chapters fit
+    private static final long ENCODED_PAGE_BUDGET = 128L * 1024 * 1024;
+    // Recently shown pages stay decoded, so scrolling back does not decode again
+    private static final long DECODED_PAGE_BUDGET = 256L * 1024 * 1024;
+    // Reading time kept downloaded ahead of the reader on top of the fetch latency
+    private static final double PREFETCH_BUFFER_SECONDS = 8;
+    private static final int MIN_PAGES_AHEAD = 3;
+    private static final int MAX_PAGES_AHEAD = 40;
+    // A second scroll past the end within this time opens the next chapter
+    private static final long OVERSCROLL_CONFIRM_MILLIS = 1500;
+    // Reading progress is written once the current page has stayed the same this long
+    private static final int PROGRESS_SAVE_DELAY_MILLIS = 1000;
+    // Spreads kept scaled and ready on each side of the one shown in paged mode
+    private static final int PAGED_NEIGHBOURS = 2;
+    private static final String STRIP_CARD = "strip";
+    private static final String PAGED_CARD = "paged";
+    // Wheel movement, in notches, that turns a page in paged mode
+    private static final double PAGE_TURN_WHEEL_NOTCHES = 1.0;
+
+    private final PageCanvas pagesPanel;
+    private final PagedView pagedView;
+    private final JPanel readerCards = new JPanel(new CardLayout());
+    private boolean pagedMode;
     private final JLabel statusLabel = new JLabel(" ", SwingConstants.CENTER);
     private final CacheManager cacheManager = new CacheManager();
     private final showOptions options = new showOptions();
-    private SwingWorker<Void, ImageIcon> currentWorker;
-    private double zoomFactor = 1.0;
+    private SwingWorker<Void, Void> currentWorker;
+    private LoadSession currentSession;
+    private PageLoadPipeline.Fetcher currentPageSource;
+    private ChapterManifest currentManifest;
+    // Page sizes the current load has learned, filled in on the EDT as its pages arrive;
+    // null once they have been remembered
+    private int[][] currentPageSizes;
+    private final WeightedLruCache<String, byte[]> encodedPages =
+            new WeightedLruCache<>(ENCODED_PAGE_BUDGET, data -> data.length);
+    // Page downloads in flight by page key, so a chapter load joins its prefetch's downloads
+    private final Map<String, CompletableFuture<byte[]>> pageDownloads = new ConcurrentHashMap<>();
+    // Decoded pixels come from the pool; the cache holds one reference per entry
+    private final PixelPool pixelPool = PixelPool.getInstance();
+    private final WeightedLruCache<String, BufferedImage> decodedPages =
+            new WeightedLruCache<>(DECODED_PAGE_BUDGET, PageImages::sizeInBytes, pixelPool::release);
+    private final PageDecoder pageDecoder = new PageDecoder(pixelPool);
+    // Range of pages that should hold pixels; written on the EDT, read by the decode stage
+    private volatile int residentFrom = 0;
+    private volatile int residentTo = RESIDENT_MARGIN;
+    private final Set<Integer> pendingDecodes = new HashSet<>();
+    private final Set<String> pendingTiles = new HashSet<>();
+    // Pages the load pipeline has already delivered; the others are still on their way
+    private final BitSet publishedPages = new BitSet();
+    private final BitSet previewRequested = new BitSet();
+    private final PageSizeCache pageSizeCache = PageSizeCache.getInstance();
+    private Function<Chapter, Chapter> chapterAfter;
+    private Consumer<Chapter> openChapter;
+    private LoadSession prefetchSession;
+    private String prefetchedChapterId;
+    private long overscrollAt;
+    private double pagedWheelNotches;
+    private final ReadingPace readingPace = new ReadingPace(PREFETCH_BUFFER_SECONDS, MIN_PAGES_AHEAD);
+    private PluginManager pluginManager;
+    private final PerformanceHud performanceHud;
+    // Wraps readerCards while the HUD is shown, null otherwise
+    private JLayer<JComponent> performanceHudLayer;
+    // Plugin chains the decoded pages in memory were produced with; changed together with
+    // clearing decodedPages, under its lock, so decodes finishing late cannot put stale pixels back
+    private volatile String decodedPluginChain;
+    private PageLoadPipeline<DecodedPage> currentPipeline;
+    // Read by the decode stage to pick a subsampling step
+    private volatile double zoomFactor = 1.0;
+    private volatile double deviceScale = 1.0;
+    private volatile GraphicsConfiguration displayConfiguration;
     private final Timer zoomTimer;
     private model.Chapter currentChapter;
     private model.Manga currentManga;
@@ -38,7 +130,7 @@ public class ReaderPanel extends JPanel {
     private DefaultListModel<String> bookmarksListModel = new  DefaultListModel<>();
     private JList<String> bookmarksList = new JList<>(bookmarksListModel);
     private int currentPageIndex = 0;
-    private final Timer pageTrackingTimer;
+    private final Timer progressSaveTimer;
     private JScrollPane currentScrollPane;
     private boolean isLoading = true;
 
@@ -48,36 +140,41 @@ public class ReaderPanel extends JPanel {
         
         setLayout(new BorderLayout());
 
+        // Fires once the zoom has settled; until then pages are scaled while painting
         zoomTimer = new Timer(150, new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                refreshZoom();
+                rescaleResidentPages();
             }
         });
         zoomTimer.setRepeats(false);
 
-        // Initialize page tracking timer - runs every 2 seconds
-        pageTrackingTimer = new Timer(2000, new ActionListener() {
+        // Restarted on every page change, so flipping through pages writes the progress once
+        progressSaveTimer = new Timer(PROGRESS_SAVE_DELAY_MILLIS, new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                updateCurrentPageIndex();
                 savePageProgress();
             }
         });
-        pageTrackingTimer.setRepeats(true);
+        progressSaveTimer.setRepeats(false);
 
         statusLabel.setForeground(Color.WHITE);
         statusLabel.setBackground(Color.DARK_GRAY);
         statusLabel.setOpaque(true);
         add(statusLabel, BorderLayout.NORTH);
 
-        pagesPanel = new JPanel();
-        pagesPanel.setLayout(new BoxLayout(pagesPanel, BoxLayout.Y_AXIS));
-        pagesPanel.setBackground(Color.BLACK);
+        pagesPanel = new PageCanvas();
 
         currentScrollPane = new JScrollPane(pagesPanel);
+        // Scrolling copies the pixels still on screen and only paints the exposed strip
+        currentScrollPane.getViewport().setScrollMode(JViewport.BLIT_SCROLL_MODE);
         currentScrollPane.getVerticalScrollBar().setUnitIncrement(16);
         currentScrollPane.setBorder(null);
+        // Page tracking follows the viewport; nothing runs while the user is not scrolling
+        currentScrollPane.getViewport().addChangeListener(e -> {
+            updateResidentPages();
+            updateCurrentPageIndex();
+        });
 
         currentScrollPane.addMouseWheelListener(new MouseWheelListener() {
             @Override
@@ -89,11 +186,28 @@ public class ReaderPanel extends JPanel {
                         zoomOut();
                     }
                     e.consume();
+                } else if (e.getWheelRotation() > 0) {
+                    scrollPastEnd();
                 }
             }
         });
 
-        add(currentScrollPane, BorderLayout.CENTER);
+        pagedView = new PagedView(PAGED_NEIGHBOURS, this::loadFrame, this::pageSize);
+        pagedView.setSpread(options.isTwoPageSpread());
+        pagedView.addMouseWheelListener(this::pagedWheelMoved);
+        pagedView.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                // Right to left: the left half of the screen turns forward
+                turnPage(e.getX() < pagedView.getWidth() / 2);
+            }
+        });
+
+        readerCards.add(currentScrollPane, STRIP_CARD);
+        readerCards.add(pagedView, PAGED_CARD);
+        performanceHud = new PerformanceHud(this::getLoadTimeline, () -> currentPageIndex, pagesPanel::getComponentCount);
+        add(readerCards, BorderLayout.CENTER);
+        setPagedMode(options.isPagedMode());
     }
 
     public void setReadingProgressStore(reading.ReadingProgressStore store) {
@@ -104,6 +218,58 @@ public class ReaderPanel extends JPanel {
         this.bookmarkStore = store;
     }
 
+    /**
+     * @return timings of the chapter load in the reader, or null if none was started
+     */
+    public LoadTimeline getLoadTimeline() {
+        LoadSession session = currentSession;
+        return session != null ? session.getTimeline() : null;
+    }
+
+    /**
+     * Show or hide the overlay with per-page load timings.
+     */
+    public void setPerformanceHudVisible(boolean visible) {
+        if (visible == isPerformanceHudVisible()) return;
+        // The layer is only wrapped around the reader while shown: painting through a
+        // JLayer turns off the viewport's blit scrolling
+        if (visible) {
+            remove(readerCards);
+            performanceHudLayer = new JLayer<>(readerCards, performanceHud);
+            add(performanceHudLayer, BorderLayout.CENTER);
+            performanceHud.setVisible(true);
+        } else {
+            performanceHud.setVisible(false);
+            remove(performanceHudLayer);
+            performanceHudLayer.setUI(null);
+            performanceHudLayer = null;
+            add(readerCards, BorderLayout.CENTER);
+        }
+        revalidate();
+        repaint();
+    }
+
+    public boolean isPerformanceHudVisible() {
+        return performanceHud.isVisible();
+    }
+
+    /**
+     * Run loaded pages through the image-processing plugins.
+     */
+    public void setPluginManager(PluginManager pluginManager) {
+        this.pluginManager = pluginManager;
+    }
+
+    /**
+     * Connect the reader to the chapter list, for next-chapter prefetch and continuous scroll.
+     * @param chapterAfter returns the chapter following the given one, or null
+     * @param openChapter opens a chapter the same way selecting it in the list does
+     */
+    public void setChapterNavigation(Function<Chapter, Chapter> chapterAfter, Consumer<Chapter> openChapter) {
+        this.chapterAfter = chapterAfter;
+        this.openChapter = openChapter;
+    }
+
     public void addBookmark() {
         logger.info("Attempting to add bookmark");
         if (bookmarkStore == null) {
@@ -136,147 +302,1108 @@ public class ReaderPanel extends JPanel {
     }
 
     public void clearPages() {
+        cancelLoad();
+        pagedView.clear();
         pagesPanel.removeAll();
         pagesPanel.revalidate();
         pagesPanel.repaint();
     }
 
     public void loadChapter(MangaDexClient api, Chapter chapter, model.Manga manga) {
+        // Get saved page index before loading
+        final int savedPageIndex = getSavedPageIndex(manga.id(), chapter.id());
+        startLoad(api, chapter, manga, savedPageIndex);
+    }
+
+    /**
+     * Cancel the chapter load in progress, if any, down to its downloads and decodes.
+     */
+    public void cancelLoad() {
+        // Sizes of the pages read so far, for the next time the chapter is opened
+        if (currentManifest != null && currentPageSizes != null) {
+            persistPageSizes(currentManifest, currentPageSizes);
+        }
+        if (currentSession != null) {
+            logger.debug("Cancelling {}", currentSession);
+            currentSession.cancel();
+            currentSession = null;
+        }
+        currentPageSource = null;
+        currentManifest = null;
+        currentPageSizes = null;
+        currentPipeline = null;
+        pendingDecodes.clear();
+        pendingTiles.clear();
+        publishedPages.clear();
+        previewRequested.clear();
+        if (currentWorker != null) {
+            currentWorker.cancel(true);
+            currentWorker = null;
+        }
+    }
+
+    /**
+     * Load a chapter's pages through the fetch/decode pipeline. The whole chapter is laid out
+     * from known page sizes before any pixels arrive, so the given page is restored right away.
+     * Any load still running is cancelled first, so only the chapter on screen uses bandwidth and CPU.
+     */
+    private void startLoad(MangaDexClient api, Chapter chapter, model.Manga manga, int resumePageIndex) {
+        // A progress write still waiting belongs to the chapter being left
+        flushPageProgress();
+        if (currentManga == null || !currentManga.id().equals(manga.id())) {
+            readingPace.reset();
+        }
         this.currentManga = manga;
         this.currentChapter = chapter;
 
-        // Stop page tracking during load
-        pageTrackingTimer.stop();
+        // No page tracking until the new chapter is laid out
         isLoading = true;
 
+        // A prefetch for any other chapter is no longer useful; one for this chapter keeps
+        // running, and the load joins the downloads it has in flight
+        if (prefetchSession != null && !chapter.id().equals(prefetchedChapterId)) {
+            prefetchSession.cancel();
+        }
+        prefetchSession = null;
+        prefetchedChapterId = null;
+        overscrollAt = 0;
+
         clearPages();
         scrollToTop();
         statusLabel.setText("Loading chapter: " + chapter.title() + "...");
 
-
-        // Get saved page index before loading
-        final int savedPageIndex = getSavedPageIndex(manga.id(), chapter.id());
+        final LoadSession session = new LoadSession(chapter.id());
+        currentSession = session;
+        // Pages decoded under another set of plugins must not be shown again
+        final String pluginChain = pluginManager != null ? pluginManager.getPageProcessingKey() : null;
+        resetDecodedPages();
+        updateDeviceScale();
+        if (pagedMode) {
+            // The hidden strip holds no pixels; only the paged view's frames are decoded
+            residentFrom = 0;
+            residentTo = -1;
+        } else {
+            residentFrom = Math.max(0, resumePageIndex - RESIDENT_MARGIN);
+            residentTo = resumePageIndex + RESIDENT_MARGIN;
+        }
 
         currentWorker = new SwingWorker<>() {
             @Override
             protected Void doInBackground() throws Exception {
-                List<String> pageUrls = api.getPageUrls(chapter.id());
-                int total = pageUrls.size();
-                int current = 0;
-                for (String url : pageUrls) {
-                    if (isCancelled()) break;
-
-                    BufferedImage image;
-                    if (cacheManager.isCached(url)) {
-                        byte[] data = cacheManager.getFromCache(url);
-                        try (InputStream in = new ByteArrayInputStream(data)) {
-                            image = ImageIO.read(in);
-                        }
-                    } else {
-                        try (InputStream in = new URL(url).openStream()) {
-                            byte[] data = in.readAllBytes();
-                            cacheManager.saveToCache(url, data);
-                            try (InputStream imageIn = new ByteArrayInputStream(data)) {
-                                image = ImageIO.read(imageIn);
+                // Manifest and cached pages need no API call; the node URL is only
+                // requested once a page actually has to be downloaded
+                LoadTimeline timeline = session.getTimeline();
+                long apiStart = System.nanoTime();
+                ChapterManifest manifest = api.getChapterManifest(chapter.id());
+                timeline.stage("API", apiStart);
+                int total = manifest.pageCount();
+                AtomicInteger current = new AtomicInteger();
+                PageLoadPipeline.Fetcher source = pageIndex -> loadProcessedPageBytes(
+                        api, manifest, pageIndex, chapter, manga, pluginChain, session);
+                long probeStart = System.nanoTime();
+                int[][] sizes = probePageSizes(manifest);
+                timeline.stage("Size probe", probeStart);
+
+                PageLoadPipeline<DecodedPage> pipeline = new PageLoadPipeline<DecodedPage>(
+                        session,
+                        total,
+                        source,
+                        (pageIndex, data) -> decodePage(manifest, pageIndex, data, session),
+                        (pageIndex, page, error) -> {
+                            if (error != null) {
+                                logger.error("Failed to load page {} of chapter {}: {}", pageIndex + 1, chapter.id(), error.getMessage());
                             }
+                            DecodedPage delivered = page != null ? page : DecodedPage.failed(pageIndex);
+                            // Delivered directly rather than through publish(): pages the reader
+                            // only gets to later arrive after this worker has finished
+                            boolean loading = !isDone();
+                            final String progressText = String.format("Loading pages: %d / %d", current.incrementAndGet(), total);
+                            SwingUtilities.invokeLater(() -> {
+                                // Sizes are only touched on the EDT, like the layout made from them
+                                if (page != null) {
+                                    sizes[pageIndex] = new int[]{page.width(), page.height()};
+                                }
+                                showLoadedPages(session, List.of(delivered));
+                                if (loading && session == currentSession) statusLabel.setText(progressText);
+                            });
                         }
+                ).gated();
 
-
+                // Downloads only run a pace-dependent distance ahead of the reader; pages
+                // already in memory or on disk cost no bandwidth and are loaded right away
+                for (int i = 0; i < total; i++) {
+                    if (isPageCached(manifest, i)) pipeline.admit(i);
+                }
+                pipeline.admitUpTo(resumePageIndex + readingPace.pagesAhead(maxPagesAhead()));
+
+                SwingUtilities.invokeLater(() -> {
+                    if (session == currentSession) {
+                        currentPageSource = source;
+                        currentManifest = manifest;
+                        currentPipeline = pipeline;
+                        currentPageSizes = sizes;
+                        long layoutStart = System.nanoTime();
+                        layoutPages(sizes, resumePageIndex);
+                        timeline.stage("Layout", layoutStart);
+                    }
+                });
+
+                long pagesStart = System.nanoTime();
+                // Sizes are remembered once per load: here once every page is in, or by
+                // cancelLoad() if the reader leaves the chapter first
+                pipeline.start().thenRun(() -> SwingUtilities.invokeLater(() -> {
+                    if (currentPageSizes == sizes) {
+                        persistPageSizes(manifest, sizes);
+                        currentPageSizes = null;
                     }
+                }));
+                // Pages past the admitted ones may never be needed: the chapter counts as
+                // loaded once the admitted pages are, and the rest follow as the reader
+                // gets to them
+                pipeline.admittedLoaded().get();
+                timeline.stage("Pages", pagesStart);
+                return null;
+            }
 
-                    current++;
-                    if (image != null) {
-                        publish(new ImageIcon(image));
+            @Override
+            protected void done() {
+                if (!isCancelled() && session == currentSession) {
+                    isLoading = false;
+                    try {
+                        get();
+                        statusLabel.setText("Chapter Loaded: " + chapter.title());
+                    } catch (Exception e) {
+                        logger.error("Failed to load chapter {}", chapter.id(), e);
+                        statusLabel.setText("Failed to load chapter: " + chapter.title());
                     }
 
-                    final String progressText = String.format("Loading pages: %d / %d", current, total);
-                    SwingUtilities.invokeLater(() -> statusLabel.setText(progressText));
+                    updateResidentPages();
                 }
-                return null;
             }
+        };
 
-            @Override
-            protected void process(List<ImageIcon> icons) {
-                for (ImageIcon icon : icons) {
-                    JLabel label = new JLabel(scaleIcon(icon));
-                    label.putClientProperty("originalIcon", icon);
-                    label.setAlignmentX(Component.CENTER_ALIGNMENT);
-                    label.setBackground(Color.BLACK);
-                    label.setOpaque(true);
-                    pagesPanel.add(label);
+        currentWorker.execute();
+    }
+
+    /**
+     * Show pages delivered by a load's pipeline. Pages of a superseded load are dropped.
+     */
+    private void showLoadedPages(LoadSession session, List<DecodedPage> pages) {
+        // A superseded load must never touch the new chapter's pages
+        if (session != currentSession) {
+            pages.forEach(page -> pixelPool.release(page.image()));
+            return;
+        }
+
+        JViewport viewport = currentScrollPane.getViewport();
+        Rectangle viewRect = viewport.getViewRect();
+        boolean resized = false;
+        int anchorDelta = 0;
+
+        for (DecodedPage page : pages) {
+            if (page.index() >= pagesPanel.getComponentCount()) continue;
+            PageView view = (PageView) pagesPanel.getComponent(page.index());
+            publishedPages.set(page.index());
+
+            if (page.isFailed()) {
+                view.markFailed();
+                continue;
+            }
+
+            int oldHeight = view.getHeight();
+            boolean aboveViewport = view.getY() + oldHeight <= viewRect.y;
+            if (view.setSourceSize(page.width(), page.height())) {
+                resized = true;
+                if (aboveViewport) {
+                    anchorDelta += view.getPreferredSize().height - oldHeight;
+                }
+            }
+            // Decoded when it was near the viewport; the reader may have moved on since
+            if (page.image() != null && page.index() >= residentFrom && page.index() <= residentTo) {
+                showImage(view, page.image(), page.subsampling());
+            }
+            pixelPool.release(page.image());
+            if (pagedMode) {
+                pagedView.pageAvailable(page.index());
+            }
+        }
+
+        if (resized) {
+            // A corrected estimate above the viewport must not move what the user is looking at
+            currentScrollPane.validate();
+            if (anchorDelta != 0) {
+                viewport.setViewPosition(new Point(viewRect.x, Math.max(0, viewRect.y + anchorDelta)));
+            }
+        }
+        updateResidentPages();
+    }
+
+    /**
+     * Remember the page sizes learned so far. Called on the EDT; the array is copied, as
+     * pages still arriving keep filling it in, and written off the EDT.
+     */
+    private void persistPageSizes(ChapterManifest manifest, int[][] sizes) {
+        int[][] snapshot = sizes.clone();
+        ReaderExecutors.fetchPool().execute(() -> pageSizeCache.putSizes(manifest, snapshot));
+    }
+
+    private boolean isPageCached(ChapterManifest manifest, int pageIndex) {
+        String pageKey = manifest.pageKey(pageIndex);
+        return encodedPages.get(pageKey) != null || cacheManager.isCached(pageKey);
+    }
+
+    /**
+     * Most pages to fetch ahead of the reader; small on metered connections.
+     */
+    private int maxPagesAhead() {
+        return options.isMeteredConnection() ? options.getMeteredPagesAhead() : MAX_PAGES_AHEAD;
+    }
+
+    /**
+     * Page sizes known before any download: remembered from an earlier read of the chapter,
+     * or read from the headers of pages already in the image cache.
+     * @return one {width, height} pair per page, {0, 0} where unknown
+     */
+    private int[][] probePageSizes(ChapterManifest manifest) {
+        int[][] sizes = pageSizeCache.getSizes(manifest);
+        for (int i = 0; i < sizes.length; i++) {
+            String pageKey = manifest.pageKey(i);
+            if (sizes[i][0] > 0 || !cacheManager.isCached(pageKey)) continue;
+            try {
+                Dimension size = pageDecoder.readSize(cacheManager.getCachedFile(pageKey));
+                if (size != null) {
+                    sizes[i] = new int[]{size.width, size.height};
                 }
-                pagesPanel.revalidate();
+            } catch (IOException e) {
+                logger.debug("Could not read the size of cached page {}: {}", pageKey, e.getMessage());
             }
+        }
+        return sizes;
+    }
 
+    /**
+     * Lay out a placeholder for every page of the chapter and restore the reading position.
+     * Pages of unknown size are estimated from the closest known page before them.
+     */
+    private void layoutPages(int[][] sizes, int resumePageIndex) {
+        int[] estimate = {0, 0};
+        for (int[] size : sizes) {
+            if (size[0] > 0) {
+                estimate = size;
+                break;
+            }
+        }
+
+        LoadTimeline timeline = currentSession.getTimeline();
+        for (int i = 0; i < sizes.length; i++) {
+            boolean known = sizes[i][0] > 0 && sizes[i][1] > 0;
+            if (known) {
+                estimate = sizes[i];
+            }
+            PageView view = new PageView(i, estimate[0], estimate[1], known, zoomFactor, true);
+            view.setTimeline(timeline);
+            pagesPanel.add(view);
+        }
+        pagedView.setTimeline(timeline);
+        currentScrollPane.validate();
+
+        currentPageIndex = Math.max(0, Math.min(resumePageIndex, sizes.length - 1));
+        if (resumePageIndex > 0 && resumePageIndex < sizes.length) {
+            scrollToPage(resumePageIndex);
+        }
+
+        // Reading can start now; page tracking also drives how far ahead pages are fetched
+        isLoading = false;
+        if (pagedMode) {
+            pagedView.open(sizes.length, currentPageIndex);
+        }
+        updateResidentPages();
+        updateCurrentPageIndex();
+    }
+
+    /**
+     * Fetch stage: read a page from memory, then the image cache, downloading it on a miss.
+     * The time and where the page came from go to the session's timeline.
+     */
+    private byte[] loadPageBytes(MangaDexClient api, ChapterManifest manifest, int pageIndex,
+                                 LoadSession session) throws Exception {
+        long start = System.nanoTime();
+        String pageKey = manifest.pageKey(pageIndex);
+        byte[] data = encodedPages.get(pageKey);
+        if (data != null) {
+            session.getTimeline().fetched(pageIndex, start, data.length, LoadTimeline.Source.MEMORY);
+            return data;
+        }
+
+        if (cacheManager.isCached(pageKey)) {
+            data = cacheManager.getFromCache(pageKey);
+            session.getTimeline().fetched(pageIndex, start, data.length, LoadTimeline.Source.DISK);
+            encodedPages.put(pageKey, data);
+            return data;
+        }
+        return downloadPage(api, manifest, pageIndex, session, start);
+    }
+
+    /**
+     * Download a page into the memory and disk caches. A download of the same page already
+     * running (e.g. the next chapter's prefetch, when that chapter is opened) is joined
+     * instead of started twice.
+     */
+    private byte[] downloadPage(MangaDexClient api, ChapterManifest manifest, int pageIndex,
+                                LoadSession session, long start) throws Exception {
+        String pageKey = manifest.pageKey(pageIndex);
+        CompletableFuture<byte[]> download = new CompletableFuture<>();
+        CompletableFuture<byte[]> inFlight = pageDownloads.putIfAbsent(pageKey, download);
+        if (inFlight != null) {
+            try {
+                byte[] data = inFlight.get();
+                session.getTimeline().fetched(pageIndex, start, data.length, LoadTimeline.Source.NETWORK);
+                return data;
+            } catch (ExecutionException e) {
+                // Failed or cancelled with its session; fetch it for this one
+                logger.debug("Joined download of {} failed, retrying: {}", pageKey, e.getCause().getMessage());
+                return downloadPage(api, manifest, pageIndex, session, start);
+            }
+        }
+
+        try {
+            byte[] data = api.fetchPage(manifest, pageIndex);
+            readingPace.onPageFetched((System.nanoTime() - start) / 1_000_000);
+            // The download alone, without the cache write
+            session.getTimeline().fetched(pageIndex, start, data.length, LoadTimeline.Source.NETWORK);
+            cacheManager.saveToCache(pageKey, data);
+            encodedPages.put(pageKey, data);
+            download.complete(data);
+            return data;
+        } catch (Exception e) {
+            download.completeExceptionally(e);
+            throw e;
+        } finally {
+            pageDownloads.remove(pageKey, download);
+        }
+    }
+
+    /**
+     * Fetch stage with the image-processing plugins applied, on the fetch pool so several
+     * pages are processed at once. Processed pages are cached in memory and on disk under
+     * the plugin chain's IDs and versions, so a filter runs once per page, not once per read.
+     * @param pluginChain key of the plugin chain, or null to load the page as it is
+     */
+    private byte[] loadProcessedPageBytes(MangaDexClient api, ChapterManifest manifest, int pageIndex,
+                                          Chapter chapter, model.Manga manga, String pluginChain,
+                                          LoadSession session) throws Exception {
+        if (pluginChain == null) {
+            return loadPageBytes(api, manifest, pageIndex, session);
+        }
+
+        long start = System.nanoTime();
+        LoadTimeline timeline = session.getTimeline();
+        String processedKey = manifest.pageKey(pageIndex) + "#" + pluginChain;
+        byte[] processed = encodedPages.get(processedKey);
+        if (processed != null) {
+            timeline.fetched(pageIndex, start, processed.length, LoadTimeline.Source.MEMORY);
+            return processed;
+        }
+
+        if (cacheManager.isCached(processedKey)) {
+            processed = cacheManager.getFromCache(processedKey);
+            timeline.fetched(pageIndex, start, processed.length, LoadTimeline.Source.DISK);
+        } else {
+            byte[] data = loadPageBytes(api, manifest, pageIndex, session);
+            long processStart = System.nanoTime();
+            PluginManager.ProcessedPage page = pluginManager.processPageTimed(data, pageIndex, chapter, manga);
+            timeline.processedBytes(pageIndex, System.nanoTime() - processStart);
+            if (session.isCancelled()) {
+                throw new CancellationException(session + " cancelled");
+            }
+            if (!page.complete()) {
+                // A plugin was skipped for this page; try the full chain again next time
+                return page.data();
+            }
+            processed = page.data();
+            cacheManager.saveToCache(processedKey, processed);
+        }
+        encodedPages.put(processedKey, processed);
+        return processed;
+    }
+
+    /**
+     * Decode a page or a tile of it, reusing the pixels of a recently shown one when possible.
+     * @param key decoded-page cache key, see {@link #decodedKey} and {@link #tileKey}
+     * @param region source region to decode, or null for the whole page
+     * @param context region around a tile that raster plugins see, or null for the region itself
+     * @return the pixels with a pool reference owned by the caller, or null
+     */
+    private BufferedImage decodeCached(String key, int pageIndex, byte[] data, LoadSession session,
+                                       int subsampling, Rectangle region, Rectangle context) throws IOException {
+        BufferedImage image = takeDecoded(key);
+        if (image == null) {
+            String chain = decodedPluginChain;
+            // Filters such as sharpening read the rows next to each pixel; without the tile's
+            // neighbouring rows its first and last rows would be left unfiltered
+            boolean withContext = context != null && !context.equals(region) && hasRasterProcessors();
+            long start = System.nanoTime();
+            image = pageDecoder.decode(data, session, subsampling, withContext ? context : region);
+            if (image != null) {
+                image = PageImages.toDisplayFormat(image, displayConfiguration, pixelPool);
+                session.getTimeline().decoded(pageIndex, start);
+                boolean complete = processRaster(image, pageIndex, session.getTimeline());
+                if (withContext) {
+                    int top = (region.y - context.y) / subsampling;
+                    int height = Math.min(image.getHeight() - top, (region.height + subsampling - 1) / subsampling);
+                    BufferedImage tile = PageImages.copyRows(image, top, height, displayConfiguration, pixelPool);
+                    pixelPool.release(image);
+                    image = tile;
+                }
+                if (complete) {
+                    synchronized (decodedPages) {
+                        // Not cached if the plugins changed while this page was being decoded
+                        if (Objects.equals(chain, decodedPluginChain)) {
+                            pixelPool.retain(image);
+                            decodedPages.put(key, image);
+                        }
+                    }
+                }
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Drop the decoded pages if the plugin chains changed since they were produced.
+     * @return true if they were dropped
+     */
+    private boolean resetDecodedPages() {
+        String decodedChain = decodedChainKey();
+        synchronized (decodedPages) {
+            if (Objects.equals(decodedChain, decodedPluginChain)) return false;
+            decodedPluginChain = decodedChain;
+            decodedPages.clear();
+        }
+        return true;
+    }
+
+    /**
+     * Key of both plugin chains decoded pages go through, or null without plugins.
+     */
+    private String decodedChainKey() {
+        return pluginManager != null
+                ? pluginManager.getPageProcessingKey() + "|" + pluginManager.getRasterProcessingKey()
+                : null;
+    }
+
+    /**
+     * Decode the pages on screen again after the raster plugins changed, e.g. new page
+     * filter settings. Strip pages keep their old pixels until the new ones arrive.
+     * Changes to byte-level plugins apply from the next chapter load.
+     */
+    public void reprocessPages() {
+        if (!resetDecodedPages()) return;
+        if (isLoading || pagesPanel.getComponentCount() == 0) return;
+
+        if (pagedMode) {
+            int pageIndex = pagedView.getFirstPage();
+            pagedView.clear();
+            pagedView.open(pagesPanel.getComponentCount(), pageIndex);
+            return;
+        }
+        for (int i = residentFrom; i <= residentTo && i < pagesPanel.getComponentCount(); i++) {
+            if (!(pagesPanel.getComponent(i) instanceof PageView page)) continue;
+            if (page.isTiled()) {
+                page.releaseTilesOutside(0, -1);
+            } else if (page.hasFullImage()) {
+                requestDecode(page);
+            }
+        }
+        updateResidentPages();
+    }
+
+    private boolean hasRasterProcessors() {
+        return pluginManager != null && !pluginManager.getRasterProcessors().isEmpty();
+    }
+
+    /**
+     * Let the raster plugins modify freshly decoded display pixels in place, before anyone
+     * else sees them. The decoded-page LRU then holds the processed pixels, so the chain
+     * runs once per decode rather than once per paint.
+     * @param timeline where to record the time spent, or null
+     * @return false if a plugin failed and the pixels should not be cached
+     */
+    private boolean processRaster(BufferedImage image, int pageIndex, LoadTimeline timeline) {
+        if (pluginManager == null) return true;
+        long start = System.nanoTime();
+        boolean complete = pluginManager.processPageRaster(image.getRaster(), pageIndex);
+        if (timeline != null) {
+            timeline.processedRaster(pageIndex, System.nanoTime() - start);
+        }
+        return complete;
+    }
+
+    /**
+     * Look up decoded pixels and take a pool reference to them before the cache can evict them.
+     */
+    private BufferedImage takeDecoded(String key) {
+        synchronized (decodedPages) {
+            BufferedImage image = decodedPages.get(key);
+            pixelPool.retain(image);
+            return image;
+        }
+    }
+
+    private static String decodedKey(String pageKey, int subsampling) {
+        return subsampling > 1 ? pageKey + "@" + subsampling : pageKey;
+    }
+
+    private static String tileKey(String pageKey, int tile, int subsampling) {
+        return decodedKey(pageKey + "#" + tile, subsampling);
+    }
+
+    /**
+     * Subsampling step for a page at the current zoom, in device pixels.
+     */
+    private int targetSubsampling(int sourceWidth) {
+        return PageDecoder.subsamplingFor(sourceWidth, (int) Math.ceil(sourceWidth * zoomFactor * deviceScale));
+    }
+
+    private void updateDeviceScale() {
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+        displayConfiguration = configuration;
+        deviceScale = configuration != null ? configuration.getDefaultTransform().getScaleX() : 1.0;
+    }
+
+    /**
+     * Decode stage: pages near the viewport are decoded, the rest only have their size read
+     * from the image header so a correctly sized placeholder can be laid out. Tiled pages
+     * are never decoded whole; their tiles are requested once the page is laid out.
+     * @return the page, or null if the data is not an image
+     */
+    private DecodedPage decodePage(ChapterManifest manifest, int pageIndex, byte[] data, LoadSession session) throws IOException {
+        Dimension size = pageDecoder.readSize(data);
+        if (size == null) {
+            return null;
+        }
+
+        BufferedImage image = null;
+        int subsampling = targetSubsampling(size.width);
+        if (pageIndex >= residentFrom && pageIndex <= residentTo && !PageTiles.isTiled(size.width, size.height)) {
+            image = decodeCached(decodedKey(manifest.pageKey(pageIndex), subsampling), pageIndex, data, session, subsampling, null, null);
+        }
+        return new DecodedPage(pageIndex, size.width, size.height, image, subsampling);
+    }
+
+    /**
+     * Keep pixels only for the pages in or near the viewport: release the pages that
+     * left that range and decode the ones that entered it again from the page cache.
+     */
+    private void updateResidentPages() {
+        int count = pagesPanel.getComponentCount();
+        // The hidden strip holds no pixels in paged mode
+        if (count == 0 || pagedMode) return;
+
+        Rectangle view = currentScrollPane.getViewport().getViewRect();
+        int lastVisible = pageAt(view.y + view.height);
+        int from = Math.max(0, pageAt(view.y) - RESIDENT_MARGIN);
+        int to = Math.min(count - 1, lastVisible + RESIDENT_MARGIN);
+        // Pages outside the resident range hold no pixels, so only the pages of the old
+        // and new ranges can need work: the cost follows the viewport, not the chapter
+        int oldFrom = residentFrom;
+        int oldTo = Math.min(count - 1, residentTo);
+        residentFrom = from;
+        residentTo = to;
+        if (currentPipeline != null) {
+            currentPipeline.admitUpTo(lastVisible + readingPace.pagesAhead(maxPagesAhead()));
+        }
+        maybePrefetchNextChapter(lastVisible + 1, count);
+
+        for (int i = oldFrom; i <= oldTo; i++) {
+            if (i >= from && i <= to) continue;
+            if (pagesPanel.getComponent(i) instanceof PageView page) page.releaseImage();
+            previewRequested.clear(i);
+        }
+        for (int i = from; i <= to; i++) {
+            if (!(pagesPanel.getComponent(i) instanceof PageView page)) continue;
+            if (page.isTiled()) {
+                updateTiles(page, view);
+            } else if (page.hasFullImage()) {
+                if (!zoomTimer.isRunning()) refineResidentPage(page);
+            } else if (!page.isFailed() && page.isEvictable()) {
+                requestDecode(page);
+            }
+        }
+    }
+
+    /**
+     * Once the reader is far enough into the chapter, fetch the next chapter's manifest
+     * and first pages in the background, so opening it needs no network round trip.
+     */
+    private void maybePrefetchNextChapter(int pagesSeen, int pageCount) {
+        if (isLoading || chapterAfter == null || currentChapter == null || !options.isPrefetchEnabled()) return;
+        // The chapter on screen always comes first
+        if (currentWorker != null && !currentWorker.isDone()) return;
+        if (pagesSeen * 100L < (long) pageCount * options.getPrefetchAtPercent()) return;
+
+        Chapter next = chapterAfter.apply(currentChapter);
+        if (next == null || next.id().equals(prefetchedChapterId)) return;
+
+        final LoadSession session = new LoadSession("prefetch " + next.id());
+        final int pages = Math.min(options.getPrefetchPages(), maxPagesAhead());
+        prefetchSession = session;
+        prefetchedChapterId = next.id();
+
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            prefetchChapter(next, session, pages);
+            return null;
+        }) {
             @Override
             protected void done() {
-                if (!isCancelled()) {
-                    isLoading = false;
-                    statusLabel.setText("Chapter Loaded: " + chapter.title());
+                session.untrack(this);
+            }
+        };
+        session.track(task);
+        ReaderExecutors.prefetchPool().execute(task);
+    }
 
-                    // Restore saved page position after loading
-                    if (savedPageIndex > 0 && pagesPanel.getComponentCount() > savedPageIndex) {
-                        SwingUtilities.invokeLater(() -> {
-                            scrollToPage(savedPageIndex);
-                        });
-                    }
+    /**
+     * Low-priority prefetch: one page at a time on a single background thread, straight into
+     * the in-memory and disk page caches, where the regular chapter load will find them.
+     */
+    private void prefetchChapter(Chapter chapter, LoadSession session, int pages) {
+        try {
+            ChapterManifest manifest = api.getChapterManifest(chapter.id());
+            int count = Math.min(pages, manifest.pageCount());
+            for (int i = 0; i < count && !session.isCancelled(); i++) {
+                loadPageBytes(api, manifest, i, session);
+            }
+            logger.debug("Prefetched {} pages of chapter {}", count, chapter.id());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            if (!session.isCancelled()) {
+                logger.warn("Prefetch of chapter {} failed: {}", chapter.id(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Continuous scroll: scrolling down at the very end of a chapter twice in a row opens the next one.
+     */
+    private void scrollPastEnd() {
+        if (!options.isContinuousScrollEnabled() || isLoading || chapterAfter == null || openChapter == null) return;
+
+        if (!isAtChapterEnd()) {
+            overscrollAt = 0;
+            return;
+        }
+
+        Chapter next = chapterAfter.apply(currentChapter);
+        if (next == null) return;
+
+        long now = System.currentTimeMillis();
+        if (now - overscrollAt > OVERSCROLL_CONFIRM_MILLIS) {
+            overscrollAt = now;
+            statusLabel.setText("Scroll again for the next chapter: " + next.title());
+            return;
+        }
+
+        updateCurrentPageIndex();
+        flushPageProgress();
+        openChapter.accept(next);
+    }
+
+    private boolean isAtChapterEnd() {
+        if (pagedMode) {
+            return pagedView.isAtLastPage();
+        }
+        JScrollBar vertical = currentScrollPane.getVerticalScrollBar();
+        return vertical.getValue() + vertical.getVisibleAmount() >= vertical.getMaximum();
+    }
+
+    public boolean isPagedMode() {
+        return pagedMode;
+    }
+
+    /**
+     * Switch between the vertical strip and paged reading, keeping the current page.
+     */
+    public void setPagedMode(boolean paged) {
+        options.setPagedMode(paged);
+        if (pagedMode == paged) return;
+        pagedMode = paged;
+
+        int pageIndex = currentPageIndex;
+        CardLayout cards = (CardLayout) readerCards.getLayout();
+        if (paged) {
+            residentFrom = 0;
+            residentTo = -1;
+            for (Component comp : pagesPanel.getComponents()) {
+                if (comp instanceof PageView page) page.releaseImage();
+            }
+            previewRequested.clear();
+            cards.show(readerCards, PAGED_CARD);
+            pagedView.open(isLoading ? 0 : pagesPanel.getComponentCount(), pageIndex);
+        } else {
+            pagedView.clear();
+            cards.show(readerCards, STRIP_CARD);
+            currentScrollPane.validate();
+            scrollToPage(pageIndex);
+            updateResidentPages();
+        }
+    }
+
+    /**
+     * Show two pages side by side in paged mode.
+     */
+    public void setTwoPageSpread(boolean spread) {
+        options.setTwoPageSpread(spread);
+        pagedView.setSpread(spread);
+        if (pagedMode) {
+            onPagedPageChanged();
+        }
+    }
+
+    /**
+     * Paged mode: turn a page once the wheel has moved a whole notch in one direction.
+     * Precise trackpads send many fractional (and zero) steps, which are added up.
+     */
+    private void pagedWheelMoved(MouseWheelEvent e) {
+        double rotation = e.getPreciseWheelRotation();
+        if (rotation == 0) return;
+        if (Math.signum(rotation) != Math.signum(pagedWheelNotches)) {
+            pagedWheelNotches = 0;
+        }
+        pagedWheelNotches += rotation;
+        if (Math.abs(pagedWheelNotches) >= PAGE_TURN_WHEEL_NOTCHES) {
+            turnPage(pagedWheelNotches > 0);
+            pagedWheelNotches = 0;
+        }
+    }
+
+    /**
+     * Paged mode: go to the next or previous spread; past the last one, continue into the next chapter.
+     */
+    private void turnPage(boolean forward) {
+        boolean turned = forward ? pagedView.next() : pagedView.previous();
+        if (turned) {
+            onPagedPageChanged();
+        } else if (forward) {
+            scrollPastEnd();
+        }
+    }
+
+    /**
+     * What scrolling does in the strip, for a page turn: admit downloads ahead, prefetch the
+     * next chapter near the end, and track the page for the reading pace and progress.
+     */
+    private void onPagedPageChanged() {
+        int pageIndex = pagedView.getFirstPage();
+        int lastShown = pageIndex + (options.isTwoPageSpread() ? 1 : 0);
+        if (currentPipeline != null) {
+            currentPipeline.admitUpTo(lastShown + readingPace.pagesAhead(maxPagesAhead()));
+        }
+        maybePrefetchNextChapter(lastShown + 1, pagesPanel.getComponentCount());
+
+        if (isLoading || pageIndex == currentPageIndex) return;
+        readingPace.onPageChanged(pageIndex, System.currentTimeMillis());
+        currentPageIndex = pageIndex;
+        progressSaveTimer.restart();
+    }
+
+    private Dimension pageSize(int pageIndex) {
+        if (pageIndex < 0 || pageIndex >= pagesPanel.getComponentCount()) return null;
+        PageView page = (PageView) pagesPanel.getComponent(pageIndex);
+        return new Dimension(page.getSourceWidth(), page.getSourceHeight());
+    }
 
-                    // Start page tracking
-                    pageTrackingTimer.start();
+    /**
+     * Paged mode: decode a page at the subsampling its frame needs and scale it to the frame,
+     * on the decode pool. Frames bypass the decoded-page LRU; the paged view's ring is their cache.
+     * @return null if the load pipeline has not delivered the page yet
+     */
+    private CompletableFuture<BufferedImage> loadFrame(int pageIndex, int width, int height) {
+        if (pageIndex >= pagesPanel.getComponentCount()) return null;
+        PageView page = (PageView) pagesPanel.getComponent(pageIndex);
+        final GraphicsConfiguration configuration = pagedView.getGraphicsConfiguration();
+
+        if (!page.isEvictable()) {
+            // Rendered PDF pages keep their pixels
+            final BufferedImage image = page.getImage();
+            if (image == null) return null;
+            pixelPool.retain(image);
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return PageView.scale(image, width, height, configuration);
+                } finally {
+                    pixelPool.release(image);
                 }
+            }, ReaderExecutors.decodePool());
+        }
+
+        final LoadSession session = currentSession;
+        final PageLoadPipeline.Fetcher source = currentPageSource;
+        final ChapterManifest manifest = currentManifest;
+        if (session == null || source == null || manifest == null || !publishedPages.get(pageIndex) || page.isFailed()) {
+            return null;
+        }
+        final int subsampling = PageDecoder.subsamplingFor(page.getSourceWidth(), width);
+        final LoadTimeline timeline = session.getTimeline();
+        return PageLoadPipeline.loadPage(session, pageIndex, source, (index, data) -> {
+                    long start = System.nanoTime();
+                    BufferedImage image = pageDecoder.decode(data, session, subsampling, null);
+                    if (image == null) return null;
+                    image = PageImages.toDisplayFormat(image, configuration, pixelPool);
+                    timeline.decoded(index, start);
+                    try {
+                        processRaster(image, index, timeline);
+                        long scaleStart = System.nanoTime();
+                        BufferedImage frame = PageView.scale(image, width, height, configuration);
+                        timeline.scaled(index, scaleStart);
+                        return frame;
+                    } finally {
+                        pixelPool.release(image);
+                    }
+                })
+                .whenComplete((image, error) -> {
+                    if (error != null && !session.isCancelled()) {
+                        logger.warn("Failed to prepare page {}: {}", pageIndex + 1, error.getMessage());
+                    }
+                });
+    }
+
+    /**
+     * Render high-quality copies of the resident pages at the current zoom in the background.
+     */
+    private void rescaleResidentPages() {
+        updateDeviceScale();
+        int count = pagesPanel.getComponentCount();
+        Rectangle view = currentScrollPane.getViewport().getViewRect();
+        for (int i = residentFrom; i <= Math.min(count - 1, residentTo); i++) {
+            if (!(pagesPanel.getComponent(i) instanceof PageView page)) continue;
+            if (page.isTiled()) {
+                updateTiles(page, view);
+            } else if (page.hasFullImage()) {
+                refineResidentPage(page);
             }
-        };
+        }
+    }
 
-        currentWorker.execute();
+    /**
+     * Bring a resident page to the quality of the current zoom: decode it again if it was
+     * decoded at a different subsampling step, otherwise prepare its high-quality scaled copy.
+     */
+    private void refineResidentPage(PageView page) {
+        if (page.isEvictable() && page.getImageSubsampling() != targetSubsampling(page.getSourceWidth())) {
+            // The current pixels keep being shown until the new decode arrives
+            requestDecode(page);
+        } else {
+            page.prepareScaled();
+        }
+    }
+
+    /**
+     * Show a page that scrolled back into range: straight from the decoded-page LRU if it
+     * is still there, otherwise decoded again from its bytes. The result is dropped if the
+     * chapter changed or the page left the range again in the meantime.
+     */
+    private void requestDecode(PageView page) {
+        final LoadSession session = currentSession;
+        final PageLoadPipeline.Fetcher source = currentPageSource;
+        final ChapterManifest manifest = currentManifest;
+        final int pageIndex = page.getPageIndex();
+        if (session == null || source == null || manifest == null) return;
+        if (!publishedPages.get(pageIndex)) {
+            // Still in the load pipeline; show a preview until it arrives
+            requestPreview(page, session, manifest);
+            return;
+        }
+
+        final String pageKey = manifest.pageKey(pageIndex);
+        final int subsampling = targetSubsampling(page.getSourceWidth());
+        BufferedImage cached = takeDecoded(decodedKey(pageKey, subsampling));
+        if (cached != null) {
+            showImage(page, cached, subsampling);
+            pixelPool.release(cached);
+            return;
+        }
+        if (!pendingDecodes.add(pageIndex)) return;
+
+        PageLoadPipeline.loadPage(session, pageIndex, source,
+                        (index, data) -> decodeCached(decodedKey(pageKey, subsampling), index, data, session, subsampling, null, null))
+                .whenComplete((image, error) -> SwingUtilities.invokeLater(() -> {
+                    try {
+                        if (session != currentSession) return;
+                        pendingDecodes.remove(pageIndex);
+                        if (error != null) {
+                            logger.warn("Failed to decode page {} again: {}", pageIndex + 1, error.getMessage());
+                        } else if (image != null && pageIndex >= residentFrom && pageIndex <= residentTo) {
+                            showImage(page, image, subsampling);
+                        }
+                    } finally {
+                        pixelPool.release(image);
+                    }
+                }));
+    }
+
+    /**
+     * Tiled page in range: keep only the tiles within a screen's height of the viewport and
+     * request the missing ones. While zooming, tiles keep their old subsampling.
+     */
+    private void updateTiles(PageView page, Rectangle view) {
+        Rectangle area = new Rectangle(0, view.y - view.height - page.getY(), page.getWidth(), view.height * 3);
+        int[] tiles = page.tilesIn(area);
+        if (tiles == null) {
+            page.releaseTilesOutside(0, -1);
+            return;
+        }
+        page.releaseTilesOutside(tiles[0], tiles[1]);
+
+        if (!publishedPages.get(page.getPageIndex())) {
+            // Still in the load pipeline; requestDecode falls back to a preview
+            requestDecode(page);
+            return;
+        }
+        int subsampling = targetSubsampling(page.getSourceWidth());
+        for (int tile = tiles[0]; tile <= tiles[1]; tile++) {
+            int current = page.getTileSubsampling(tile);
+            if (current == 0 || (current != subsampling && !zoomTimer.isRunning())) {
+                requestTile(page, tile, subsampling);
+            }
+        }
     }
 
-    private ImageIcon scaleIcon(ImageIcon icon) {
-        int width = Math.max(1, (int) (icon.getIconWidth() * zoomFactor));
-        int height = Math.max(1, (int) (icon.getIconHeight() * zoomFactor));
+    /**
+     * Decode one tile of a tiled page from its source region, or take it from the decoded-page LRU.
+     */
+    private void requestTile(PageView page, int tile, int subsampling) {
+        final LoadSession session = currentSession;
+        final PageLoadPipeline.Fetcher source = currentPageSource;
+        final ChapterManifest manifest = currentManifest;
+        final int pageIndex = page.getPageIndex();
+        if (session == null || source == null || manifest == null) return;
+
+        final String key = tileKey(manifest.pageKey(pageIndex), tile, subsampling);
+        BufferedImage cached = takeDecoded(key);
+        if (cached != null) {
+            page.setTile(tile, cached, subsampling);
+            pixelPool.release(cached);
+            return;
+        }
+        if (!pendingTiles.add(key)) return;
+
+        final Rectangle region = PageTiles.region(tile, page.getSourceWidth(), page.getSourceHeight());
+        // One decoded row either side
+        final Rectangle context = PageTiles.withContext(region, subsampling, page.getSourceHeight());
+        PageLoadPipeline.loadPage(session, pageIndex, source,
+                        (index, data) -> decodeCached(key, index, data, session, subsampling, region, context))
+                .whenComplete((image, error) -> SwingUtilities.invokeLater(() -> {
+                    try {
+                        if (session != currentSession) return;
+                        pendingTiles.remove(key);
+                        if (error != null) {
+                            logger.warn("Failed to decode tile {} of page {}: {}", tile + 1, pageIndex + 1, error.getMessage());
+                        } else if (image != null && pageIndex >= residentFrom && pageIndex <= residentTo) {
+                            page.setTile(tile, image, subsampling);
+                        }
+                    } finally {
+                        pixelPool.release(image);
+                    }
+                }));
+    }
 
-        BufferedImage scaledImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g2d = scaledImage.createGraphics();
+    /**
+     * Progressive display for a page that is still downloading: fetch its data-saver
+     * rendition (a fraction of the size) and show it until the full page replaces it.
+     * Pages already cached load fast enough without one.
+     */
+    private void requestPreview(PageView page, LoadSession session, ChapterManifest manifest) {
+        final int pageIndex = page.getPageIndex();
+        if (!manifest.hasPreview(pageIndex) || previewRequested.get(pageIndex) || isPageCached(manifest, pageIndex)) return;
+        previewRequested.set(pageIndex);
+
+        PageLoadPipeline.loadPage(session, pageIndex,
+                        index -> loadPreviewBytes(manifest, index),
+                        (index, data) -> {
+                            BufferedImage image = pageDecoder.decode(data, session);
+                            if (image == null) return null;
+                            image = PageImages.toDisplayFormat(image, displayConfiguration, pixelPool);
+                            processRaster(image, index, null);
+                            return image;
+                        })
+                .whenComplete((image, error) -> SwingUtilities.invokeLater(() -> {
+                    try {
+                        if (session != currentSession) return;
+                        if (error != null) {
+                            logger.debug("No preview for page {}: {}", pageIndex + 1, error.getMessage());
+                        } else if (image != null && pageIndex >= residentFrom && pageIndex <= residentTo) {
+                            page.setPreview(image);
+                        }
+                    } finally {
+                        pixelPool.release(image);
+                    }
+                }));
+    }
 
-        // Use bilinear interpolation for a good balance between speed and quality
-        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+    private byte[] loadPreviewBytes(ChapterManifest manifest, int pageIndex) throws Exception {
+        String previewKey = manifest.previewKey(pageIndex);
+        byte[] data = encodedPages.get(previewKey);
+        if (data == null) {
+            data = api.fetchPreview(manifest, pageIndex);
+            encodedPages.put(previewKey, data);
+        }
+        return data;
+    }
 
-        g2d.drawImage(icon.getImage(), 0, 0, width, height, null);
-        g2d.dispose();
+    private void showImage(PageView page, BufferedImage image, int subsampling) {
+        page.setImage(image, subsampling);
+        // While the user is still zooming, scaling happens at paint time
+        if (image != null && !zoomTimer.isRunning()) {
+            page.prepareScaled();
+        }
+    }
 
-        return new ImageIcon(scaledImage);
+    /**
+     * Index of the page component covering the given y coordinate (pages are laid out top to bottom).
+     */
+    private int pageAt(int y) {
+        return pagesPanel.pageAt(y);
     }
 
     public void zoomIn() {
         logger.debug("Zooming in from {} to {}", zoomFactor, zoomFactor * 1.2);
         zoomFactor *= 1.2;
+        refreshZoom();
         zoomTimer.restart();
     }
 
     public void zoomOut() {
         logger.debug("Zooming out from {} to {}", zoomFactor, zoomFactor / 1.2);
         zoomFactor /= 1.2;
+        refreshZoom();
         zoomTimer.restart();
     }
 
     public void resetZoom() {
         logger.debug("Resetting zoom from {} to 1.0", zoomFactor);
         zoomFactor = 1.0;
+        refreshZoom();
         zoomTimer.restart();
     }
 
     public void scrollPage(boolean down) {
-        if (currentScrollPane != null) {
+        if (pagedMode) {
+            turnPage(down);
+        } else if (currentScrollPane != null) {
             JScrollBar vertical = currentScrollPane.getVerticalScrollBar();
             int amount = currentScrollPane.getViewport().getHeight() - 50;
             if (!down) amount = -amount;
+            if (down) scrollPastEnd();
             vertical.setValue(vertical.getValue() + amount);
         }
     }
 
     public void scrollLine(boolean down) {
-        if (currentScrollPane != null) {
+        if (pagedMode) {
+            turnPage(down);
+        } else if (currentScrollPane != null) {
             JScrollBar vertical = currentScrollPane.getVerticalScrollBar();
             int amount = vertical.getUnitIncrement() * 3;
             if (!down) amount = -amount;
@@ -305,9 +1432,10 @@ public class ReaderPanel extends JPanel {
             viewWidth = currentScrollPane.getViewport().getWidth();
         }
 
+        // Only the layout changes here; pixels are scaled at paint time until the zoom settles
         for (Component comp : pagesPanel.getComponents()) {
-            if (comp instanceof JLabel label && label.getClientProperty("originalIcon") instanceof ImageIcon originalIcon) {
-                label.setIcon(scaleIcon(originalIcon));
+            if (comp instanceof PageView page) {
+                page.setZoom(zoomFactor);
             }
         }
         pagesPanel.revalidate();
@@ -334,40 +1462,41 @@ public class ReaderPanel extends JPanel {
     public void clearCache() {
         logger.info("Clearing image cache");
         cacheManager.clearCache();
+        encodedPages.clear();
+        decodedPages.clear();
         logger.info("Cache cleared successfully");
         JOptionPane.showMessageDialog(this, "Cache cleared successfully.");
     }
 
     /**
-     * Update the current page index based on scroll position
+     * Update the current page index from the scroll position: the page under the middle of
+     * the viewport. A change feeds the reading pace and schedules a progress write.
      */
     private void updateCurrentPageIndex() {
-        if (currentScrollPane == null || isLoading || pagesPanel.getComponentCount() == 0) {
+        // Paged mode tracks page turns instead, in onPagedPageChanged
+        if (currentScrollPane == null || isLoading || pagedMode || pagesPanel.getComponentCount() == 0) {
             return;
         }
 
-        JScrollBar vertical = currentScrollPane.getVerticalScrollBar();
-        int scrollValue = vertical.getValue();
-        int viewportHeight = currentScrollPane.getViewport().getHeight();
-        int middlePoint = scrollValue + viewportHeight / 2;
-
-        int pageCount = pagesPanel.getComponentCount();
-        int closestPageIndex = 0;
-        int minDistance = Integer.MAX_VALUE;
-
-        for (int i = 0; i < pageCount; i++) {
-            Component comp = pagesPanel.getComponent(i);
-            Rectangle bounds = comp.getBounds();
-            int compMiddle = bounds.y + bounds.height / 2;
-            int distance = Math.abs(compMiddle - middlePoint);
-
-            if (distance < minDistance) {
-                minDistance = distance;
-                closestPageIndex = i;
-            }
+        Rectangle view = currentScrollPane.getViewport().getViewRect();
+        int pageIndex = pageAt(view.y + view.height / 2);
+        if (pageIndex == currentPageIndex) {
+            return;
         }
 
-        currentPageIndex = closestPageIndex;
+        readingPace.onPageChanged(pageIndex, System.currentTimeMillis());
+        currentPageIndex = pageIndex;
+        progressSaveTimer.restart();
+    }
+
+    /**
+     * Write a pending progress update right away.
+     */
+    private void flushPageProgress() {
+        if (progressSaveTimer.isRunning()) {
+            progressSaveTimer.stop();
+            savePageProgress();
+        }
     }
 
     /**
@@ -442,101 +1571,36 @@ public class ReaderPanel extends JPanel {
             "1"
         );
 
-        // Load the chapter - page will be restored in loadChapter's done() callback
-        pageTrackingTimer.stop();
-        isLoading = true;
-
-        this.currentManga = manga;
-        this.currentChapter = chapter;
-        clearPages();
-        scrollToTop();
-        statusLabel.setText("Loading chapter: " + chapter.title() + "...");
-
-        currentWorker = new SwingWorker<>() {
-            @Override
-            protected Void doInBackground() throws Exception {
-                List<String> pageUrls = api.getPageUrls(chapter.id());
-                int total = pageUrls.size();
-                int current = 0;
-                for (String url : pageUrls) {
-                    if (isCancelled()) break;
-
-                    BufferedImage image;
-                    if (cacheManager.isCached(url)) {
-                        byte[] data = cacheManager.getFromCache(url);
-                        try (InputStream in = new ByteArrayInputStream(data)) {
-                            image = ImageIO.read(in);
-                        }
-                    } else {
-                        try (InputStream in = new URL(url).openStream()) {
-                            byte[] data = in.readAllBytes();
-                            cacheManager.saveToCache(url, data);
-                            try (InputStream imageIn = new ByteArrayInputStream(data)) {
-                                image = ImageIO.read(imageIn);
-                            }
-                        }
-                    }
-
-                    current++;
-                    if (image != null) {
-                        publish(new ImageIcon(image));
-                    }
-
-                    final String progressText = String.format("Loading pages: %d / %d", current, total);
-                    SwingUtilities.invokeLater(() -> statusLabel.setText(progressText));
-                }
-                return null;
-            }
-
-            @Override
-            protected void process(List<ImageIcon> icons) {
-                for (ImageIcon icon : icons) {
-                    JLabel label = new JLabel(scaleIcon(icon));
-                    label.putClientProperty("originalIcon", icon);
-                    label.setAlignmentX(Component.CENTER_ALIGNMENT);
-                    label.setBackground(Color.BLACK);
-                    label.setOpaque(true);
-                    pagesPanel.add(label);
-                }
-                pagesPanel.revalidate();
-            }
-
-            @Override
-            protected void done() {
-                if (!isCancelled()) {
-                    isLoading = false;
-                    statusLabel.setText("Chapter Loaded: " + chapter.title());
-
-                    // Restore saved page position
-                    if (bookmarkPage > 0 && pagesPanel.getComponentCount() > bookmarkPage) {
-                        SwingUtilities.invokeLater(() -> {
-                            scrollToPage(bookmarkPage);
-                        });
-                    }
-
-                    // Start page tracking
-                    pageTrackingTimer.start();
-                }
-            }
-        };
-
-        currentWorker.execute();
+        // Load the chapter - layoutPages() scrolls to the page once the sizes are known, before any pixels arrive
+        startLoad(api, chapter, manga, bookmarkPage);
     }
 
 
 
     public void addPage(ImageIcon icon) {
-        JLabel label = new JLabel(scaleIcon(icon));
-        label.putClientProperty("originalIcon", icon);
-        label.setAlignmentX(Component.CENTER_ALIGNMENT);
-        label.setOpaque(true);
-        pagesPanel.add(label);
+        // Rendered PDF pages have no cache to decode from again, so they stay resident
+        BufferedImage image;
+        if (icon.getImage() instanceof BufferedImage buffered) {
+            image = buffered;
+        } else {
+            image = new BufferedImage(icon.getIconWidth(), icon.getIconHeight(), BufferedImage.TYPE_INT_RGB);
+            Graphics2D g2d = image.createGraphics();
+            g2d.drawImage(icon.getImage(), 0, 0, null);
+            g2d.dispose();
+        }
+
+        PageView page = new PageView(pagesPanel.getComponentCount(), image.getWidth(), image.getHeight(), true, zoomFactor, false);
+        page.setImage(image);
+        pagesPanel.add(page);
     }
 
     public void onLoadComplete(String title) {
         statusLabel.setText("Loaded: " + title);
         currentPageIndex = 0;
         scrollToTop();
+        if (pagedMode) {
+            pagedView.open(pagesPanel.getComponentCount(), 0);
+        }
     }
 
 }
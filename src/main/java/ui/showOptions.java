@@ -1,5 +1,7 @@
 package ui;
 
+import reader.filter.FilterSettings;
+
 import javax.swing.*;
 import java.awt.*;
 import java.util.prefs.Preferences;
@@ -8,6 +10,19 @@ public class showOptions {
 
     private static final String KEY_CACHE = "cachingEnabled";
     private static final String NSFW_CACHE = "nsfwEnabled";
+    private static final String KEY_PREFETCH = "prefetchNextChapter";
+    private static final String KEY_PREFETCH_AT = "prefetchAtPercent";
+    private static final String KEY_PREFETCH_PAGES = "prefetchPages";
+    private static final String KEY_CONTINUOUS = "continuousScroll";
+    private static final String KEY_METERED = "meteredConnection";
+    private static final String KEY_METERED_PAGES = "meteredPagesAhead";
+    private static final String KEY_PAGED = "pagedMode";
+    private static final String KEY_SPREAD = "twoPageSpread";
+    private static final String KEY_FILTER_BRIGHTNESS = "filterBrightness";
+    private static final String KEY_FILTER_CONTRAST = "filterContrast";
+    private static final String KEY_FILTER_GAMMA = "filterGamma";
+    private static final String KEY_FILTER_SHARPEN = "filterSharpen";
+    private static final String KEY_FILTER_GRAYSCALE = "filterGrayscale";
 
     private final Preferences prefs =
             Preferences.userNodeForPackage(showOptions.class);
@@ -39,7 +54,34 @@ public class showOptions {
         });
 
 
+        JCheckBox c2 = new JCheckBox("Prefetch next chapter", isPrefetchEnabled());
+        c2.addActionListener(e -> prefs.putBoolean(KEY_PREFETCH, c2.isSelected()));
+
+        JSpinner prefetchAt = new JSpinner(new SpinnerNumberModel(getPrefetchAtPercent(), 10, 100, 5));
+        prefetchAt.addChangeListener(e -> prefs.putInt(KEY_PREFETCH_AT, (Integer) prefetchAt.getValue()));
+
+        JSpinner prefetchPages = new JSpinner(new SpinnerNumberModel(getPrefetchPages(), 1, 50, 1));
+        prefetchPages.addChangeListener(e -> prefs.putInt(KEY_PREFETCH_PAGES, (Integer) prefetchPages.getValue()));
+
+        JCheckBox c3 = new JCheckBox("Continuous scroll into next chapter", isContinuousScrollEnabled());
+        c3.addActionListener(e -> prefs.putBoolean(KEY_CONTINUOUS, c3.isSelected()));
+
+        JCheckBox c4 = new JCheckBox("Metered connection, prefetch at most", isMeteredConnection());
+        c4.addActionListener(e -> prefs.putBoolean(KEY_METERED, c4.isSelected()));
+
+        JSpinner meteredPages = new JSpinner(new SpinnerNumberModel(getMeteredPagesAhead(), 1, 20, 1));
+        meteredPages.addChangeListener(e -> prefs.putInt(KEY_METERED_PAGES, (Integer) meteredPages.getValue()));
+
         frame.add(c1);
+        frame.add(c2);
+        frame.add(new JLabel("at % read:"));
+        frame.add(prefetchAt);
+        frame.add(new JLabel("pages:"));
+        frame.add(prefetchPages);
+        frame.add(c3);
+        frame.add(c4);
+        frame.add(meteredPages);
+        frame.add(new JLabel("pages ahead"));
         frame.pack();
         frame.setLocationRelativeTo(null);
         frame.setVisible(true);
@@ -52,4 +94,86 @@ public class showOptions {
     public boolean isNsfwEnabled() {
         return iAmAGooner;
     }
+
+    // Reader settings are read from the preferences on every call, so every
+    // showOptions instance sees changes made in the options window right away
+
+    public boolean isPrefetchEnabled() {
+        return prefs.getBoolean(KEY_PREFETCH, true);
+    }
+
+    /**
+     * @return how far into a chapter (in percent of its pages) the next one starts prefetching
+     */
+    public int getPrefetchAtPercent() {
+        return prefs.getInt(KEY_PREFETCH_AT, 75);
+    }
+
+    /**
+     * @return number of pages of the next chapter to prefetch
+     */
+    public int getPrefetchPages() {
+        return prefs.getInt(KEY_PREFETCH_PAGES, 8);
+    }
+
+    public boolean isContinuousScrollEnabled() {
+        return prefs.getBoolean(KEY_CONTINUOUS, false);
+    }
+
+    public boolean isMeteredConnection() {
+        return prefs.getBoolean(KEY_METERED, false);
+    }
+
+    /**
+     * @return most pages fetched ahead of the reader on a metered connection
+     */
+    public int getMeteredPagesAhead() {
+        return prefs.getInt(KEY_METERED_PAGES, 4);
+    }
+
+    /**
+     * @return true to read one page (or spread) at a time instead of a vertical strip
+     */
+    public boolean isPagedMode() {
+        return prefs.getBoolean(KEY_PAGED, false);
+    }
+
+    public void setPagedMode(boolean paged) {
+        prefs.putBoolean(KEY_PAGED, paged);
+    }
+
+    /**
+     * @return true to show two pages side by side in paged mode
+     */
+    public boolean isTwoPageSpread() {
+        return prefs.getBoolean(KEY_SPREAD, false);
+    }
+
+    public void setTwoPageSpread(boolean spread) {
+        prefs.putBoolean(KEY_SPREAD, spread);
+    }
+
+    /**
+     * @return the page filter adjustments, FilterSettings.NONE until changed
+     */
+    public FilterSettings getFilterSettings() {
+        try {
+            return new FilterSettings(
+                    prefs.getInt(KEY_FILTER_BRIGHTNESS, 0),
+                    prefs.getDouble(KEY_FILTER_CONTRAST, 1.0),
+                    prefs.getDouble(KEY_FILTER_GAMMA, 1.0),
+                    prefs.getDouble(KEY_FILTER_SHARPEN, 0.0),
+                    prefs.getBoolean(KEY_FILTER_GRAYSCALE, false));
+        } catch (IllegalArgumentException e) {
+            return FilterSettings.NONE;
+        }
+    }
+
+    public void setFilterSettings(FilterSettings settings) {
+        prefs.putInt(KEY_FILTER_BRIGHTNESS, settings.brightness());
+        prefs.putDouble(KEY_FILTER_CONTRAST, settings.contrast());
+        prefs.putDouble(KEY_FILTER_GAMMA, settings.gamma());
+        prefs.putDouble(KEY_FILTER_SHARPEN, settings.sharpen());
+        prefs.putBoolean(KEY_FILTER_GRAYSCALE, settings.grayscale());
+    }
 }
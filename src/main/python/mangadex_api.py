@@ -135,6 +135,59 @@ def get_manga(manga_id):
     return None
 
 
+def _chunks(ids, size=100):
+    """
+    Split IDs into de-duplicated chunks MangaDex accepts in one list request.
+    """
+    unique = []
+    for i in ids:
+        if i not in unique:
+            unique.append(i)
+    return [unique[i:i + size] for i in range(0, len(unique), size)]
+
+
+def get_mangas(manga_ids):
+    """
+    Get several manga in as few requests as possible.
+
+    Args:
+        manga_ids: List of manga IDs
+
+    Returns:
+        List of dicts with 'id' and 'title' keys for the manga that were found
+    """
+    results = []
+
+    for chunk in _chunks(manga_ids):
+        url = "{0}/manga?limit=100{1}".format(
+            API_BASE,
+            "&contentRating[]=safe&contentRating[]=suggestive"
+            "&contentRating[]=erotica&contentRating[]=pornographic")
+        for manga_id in chunk:
+            url += "&ids[]={0}".format(manga_id)
+
+        try:
+            root = _make_request(url)
+            for item in root.get("data", []):
+                fetched_id = item.get("id")
+                titles = item.get("attributes", {}).get("title", {})
+
+                # Prefer English title, fall back to first available
+                name = titles.get("en")
+                if not name and titles:
+                    name = list(titles.values())[0]
+
+                if fetched_id and name:
+                    results.append({
+                        "id": fetched_id,
+                        "title": name
+                    })
+        except Exception as e:
+            sys.stderr.write("Get mangas failed: {0}\n".format(e))
+
+    return results
+
+
 def get_chapters(manga_id, nsfw_enabled=False):
     """
     Get list of chapters for a manga.
@@ -199,6 +252,37 @@ def get_page_urls(chapter_id):
         return []
 
 
+def get_at_home_server(chapter_id):
+    """
+    Get the at-home node and page manifest for a chapter.
+
+    Args:
+        chapter_id: The chapter ID
+
+    Returns:
+        Dict with 'baseUrl' and 'chapter' ('hash', 'data', 'dataSaver'), or None
+    """
+    url = "{0}/at-home/server/{1}".format(API_BASE, chapter_id)
+
+    try:
+        root = _make_request(url)
+        chapter_data = root.get("chapter", {})
+
+        if root.get("baseUrl") and chapter_data.get("hash"):
+            return {
+                "baseUrl": root.get("baseUrl"),
+                "chapter": {
+                    "hash": chapter_data.get("hash"),
+                    "data": chapter_data.get("data", []),
+                    "dataSaver": chapter_data.get("dataSaver", [])
+                }
+            }
+    except Exception as e:
+        sys.stderr.write("Get at-home server failed: {0}\n".format(e))
+
+    return None
+
+
 def get_manga_stats(manga_id):
     """
     Get statistics for a manga.
@@ -219,3 +303,27 @@ def get_manga_stats(manga_id):
         sys.stderr.write("Get manga stats failed: {0}\n".format(e))
         return None
 
+
+def get_manga_stats_batch(manga_ids):
+    """
+    Get statistics for several manga at once.
+
+    Args:
+        manga_ids: List of manga IDs
+
+    Returns:
+        Dict of manga ID to its statistics dict
+    """
+    stats = {}
+
+    for chunk in _chunks(manga_ids):
+        url = "{0}/statistics/manga?{1}".format(
+            API_BASE, "&".join(["manga[]={0}".format(i) for i in chunk]))
+
+        try:
+            root = _make_request(url)
+            stats.update(root.get("statistics", {}))
+        except Exception as e:
+            sys.stderr.write("Get manga stats batch failed: {0}\n".format(e))
+
+    return stats
@@ -0,0 +1,64 @@
+package api;
+
+import model.ChapterManifest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AtHomeCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private Path dir;
+    private AtHomeCache cache;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("manifests");
+        cache = new AtHomeCache(dir, Duration.ofMinutes(10), now::get);
+    }
+
+    @Test
+    public void testBaseUrlExpiresAfterTtl() {
+        cache.putBaseUrl("ch1", "https://node.example");
+        assertEquals(Optional.of("https://node.example"), cache.getBaseUrl("ch1"));
+
+        now.addAndGet(Duration.ofMinutes(10).toMillis());
+        assertEquals(Optional.empty(), cache.getBaseUrl("ch1"));
+    }
+
+    @Test
+    public void testInvalidateBaseUrl() {
+        cache.putBaseUrl("ch1", "https://node.example");
+        cache.invalidateBaseUrl("ch1");
+        assertEquals(Optional.empty(), cache.getBaseUrl("ch1"));
+    }
+
+    @Test
+    public void testInvalidateKeepsNewerBaseUrl() {
+        cache.putBaseUrl("ch1", "https://old.example");
+        cache.putBaseUrl("ch1", "https://new.example");
+        cache.invalidateBaseUrl("ch1", "https://old.example");
+        assertEquals(Optional.of("https://new.example"), cache.getBaseUrl("ch1"));
+
+        cache.invalidateBaseUrl("ch1", "https://new.example");
+        assertEquals(Optional.empty(), cache.getBaseUrl("ch1"));
+    }
+
+    @Test
+    public void testManifestSurvivesRestart() {
+        ChapterManifest manifest = new ChapterManifest("ch1", "abc", List.of("1.jpg", "2.jpg"), List.of("1s.jpg", "2s.jpg"));
+        cache.putManifest(manifest);
+
+        AtHomeCache reopened = new AtHomeCache(dir, Duration.ofMinutes(10), now::get);
+        assertEquals(Optional.of(manifest), reopened.getManifest("ch1"));
+        assertEquals("data/abc/2.jpg", reopened.getManifest("ch1").get().pageKey(1));
+    }
+}
@@ -0,0 +1,69 @@
+package api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MicroBatcherTest {
+
+    @Test
+    public void testRequestsInWindowShareOneBatch() throws Exception {
+        List<List<String>> batches = new ArrayList<>();
+        MicroBatcher<String, String> batcher = new MicroBatcher<>("test", keys -> {
+            synchronized (batches) {
+                batches.add(keys);
+            }
+            Map<String, String> result = new HashMap<>();
+            for (String key : keys) {
+                if (!key.equals("missing")) result.put(key, key.toUpperCase());
+            }
+            return result;
+        }, 50, 100);
+
+        CompletableFuture<String> a = batcher.submit("a");
+        CompletableFuture<String> b = batcher.submit("b");
+        CompletableFuture<String> dup = batcher.submit("a");
+        CompletableFuture<String> missing = batcher.submit("missing");
+
+        assertEquals("A", a.get());
+        assertEquals("B", b.get());
+        assertSame(a, dup);
+        assertNull(missing.get());
+        assertEquals(1, batches.size());
+        assertEquals(List.of("a", "b", "missing"), batches.get(0));
+    }
+
+    @Test
+    public void testFullBatchFlushesWithoutWaiting() throws Exception {
+        MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>("test", keys -> {
+            Map<Integer, Integer> result = new HashMap<>();
+            for (Integer key : keys) result.put(key, key * 2);
+            return result;
+        }, 60_000, 2);
+
+        CompletableFuture<Integer> first = batcher.submit(1);
+        CompletableFuture<Integer> second = batcher.submit(2);
+
+        assertEquals(2, first.get());
+        assertEquals(4, second.get());
+    }
+
+    @Test
+    public void testLoaderFailureFailsWholeBatch() {
+        MicroBatcher<String, String> batcher = new MicroBatcher<>("test", keys -> {
+            throw new IllegalStateException("boom");
+        }, 10, 100);
+
+        CompletableFuture<String> future = batcher.submit("a");
+
+        ExecutionException e = assertThrows(ExecutionException.class, future::get);
+        assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+}
@@ -0,0 +1,134 @@
+package plugin;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PluginManagerTest {
+
+    private static ShioriPlugin plugin(String id, PluginCapability capability, long delayMillis, int marker) {
+        return plugin(id, capability, delayMillis, marker, new AtomicInteger());
+    }
+
+    /**
+     * @param calls counts the pages the plugin was given
+     */
+    private static ShioriPlugin plugin(String id, PluginCapability capability, long delayMillis, int marker,
+                                       AtomicInteger calls) {
+        return new ShioriPlugin() {
+            @Override public String getId() { return id; }
+            @Override public String getName() { return id; }
+            @Override public String getVersion() { return "1.0"; }
+            @Override public String getAuthor() { return "test"; }
+            @Override public String getDescription() { return id; }
+            @Override public PluginCapability getCapability() { return capability; }
+
+            @Override
+            public byte[] onPageLoaded(byte[] imageData, int pageIndex) {
+                calls.incrementAndGet();
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    return null;
+                }
+                byte[] result = imageData.clone();
+                result[0] += marker;
+                return result;
+            }
+        };
+    }
+
+    private static void register(PluginManager manager, ShioriPlugin plugin) {
+        manager.registerPlugin(plugin, new PluginDescriptor(plugin.getId(), plugin.getName(), plugin.getVersion(),
+                plugin.getAuthor(), plugin.getDescription(), plugin.getCapability(), null, null,
+                List.of(), Set.of(), null, null, true));
+    }
+
+    @Test
+    public void testOnlyImageProcessorsRunInIdOrder() {
+        PluginManager manager = new PluginManager();
+        assertNull(manager.getPageProcessingKey());
+
+        register(manager, plugin("b-filter", PluginCapability.IMAGE_PROCESSING, 0, 10));
+        register(manager, plugin("a-filter", PluginCapability.IMAGE_PROCESSING, 0, 1));
+        register(manager, plugin("stats", PluginCapability.ANALYTICS, 0, 100));
+
+        assertEquals("a-filter@1.0,b-filter@1.0", manager.getPageProcessingKey());
+        PluginManager.ProcessedPage page = manager.processPageTimed(new byte[]{0}, 0, null, null);
+        assertTrue(page.complete());
+        assertEquals(11, page.data()[0]);
+
+        manager.disablePlugin("b-filter");
+        assertEquals("a-filter@1.0", manager.getPageProcessingKey());
+    }
+
+    @Test
+    public void testSlowPluginIsSkippedThenBypassed() {
+        PluginManager manager = new PluginManager();
+        manager.setPageTimeBudget(50);
+        register(manager, plugin("fast", PluginCapability.IMAGE_PROCESSING, 0, 1));
+        AtomicInteger slowCalls = new AtomicInteger();
+        register(manager, plugin("slow", PluginCapability.IMAGE_PROCESSING, 5_000, 10, slowCalls));
+
+        for (int i = 0; i < 3; i++) {
+            assertFalse(manager.isBypassed("slow"));
+            PluginManager.ProcessedPage page = manager.processPageTimed(new byte[]{0}, i, null, null);
+            assertFalse(page.complete());
+            assertEquals(1, page.data()[0]);
+        }
+        assertTrue(manager.isBypassed("slow"));
+        assertFalse(manager.isBypassed("fast"));
+
+        // Bypassed now: the page goes on without the plugin ever being called
+        int calls = slowCalls.get();
+        PluginManager.ProcessedPage page = manager.processPageTimed(new byte[]{0}, 3, null, null);
+        assertEquals(calls, slowCalls.get());
+        assertFalse(page.complete());
+        assertEquals(1, page.data()[0]);
+
+        manager.enablePlugin("slow");
+        assertFalse(manager.isBypassed("slow"));
+    }
+
+    @Test
+    public void testRasterProcessorsShareOneDecodedPage() {
+        PluginManager manager = new PluginManager();
+        register(manager, plugin("bytes", PluginCapability.IMAGE_PROCESSING, 0, 1));
+        for (String id : List.of("invert", "brighten")) {
+            register(manager, new ShioriPlugin() {
+                @Override public String getId() { return id; }
+                @Override public String getName() { return id; }
+                @Override public String getVersion() { return "2.0"; }
+                @Override public String getAuthor() { return "test"; }
+                @Override public String getDescription() { return id; }
+                @Override public PluginCapability getCapability() { return PluginCapability.IMAGE_PROCESSING; }
+                @Override public boolean isRasterProcessor() { return true; }
+
+                @Override
+                public void onPageDecoded(WritableRaster raster, int pageIndex) {
+                    int[] pixels = raster.getPixels(0, 0, raster.getWidth(), raster.getHeight(), (int[]) null);
+                    for (int i = 0; i < pixels.length; i++) {
+                        pixels[i] = id.equals("invert") ? 255 - pixels[i] : Math.min(255, pixels[i] + 10);
+                    }
+                    raster.setPixels(0, 0, raster.getWidth(), raster.getHeight(), pixels);
+                }
+            });
+        }
+
+        assertEquals("bytes@1.0", manager.getPageProcessingKey());
+        assertEquals("brighten@2.0,invert@2.0", manager.getRasterProcessingKey());
+
+        BufferedImage page = new BufferedImage(4, 2, BufferedImage.TYPE_BYTE_GRAY);
+        page.getRaster().setSample(0, 0, 0, 200);
+        assertTrue(manager.processPageRaster(page.getRaster(), 0));
+        // Brightened first (ID order), then inverted, in place
+        assertEquals(45, page.getRaster().getSample(0, 0, 0));
+        assertEquals(245, page.getRaster().getSample(1, 0, 0));
+    }
+}
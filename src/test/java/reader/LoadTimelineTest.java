@@ -0,0 +1,73 @@
+package reader;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoadTimelineTest {
+
+    @Test
+    public void testOnlyTheFirstRunOfAPageStageCounts() throws Exception {
+        LoadTimeline timeline = new LoadTimeline();
+        long start = System.nanoTime();
+        timeline.fetched(3, start, 2048, LoadTimeline.Source.NETWORK);
+        timeline.decoded(3, start);
+        timeline.painted(3);
+        long firstPaint = timeline.getPage(3).paintedAt();
+
+        Thread.sleep(5);
+        // A re-decode after eviction, read from memory, and another paint
+        timeline.fetched(3, System.nanoTime(), 10, LoadTimeline.Source.MEMORY);
+        timeline.decoded(3, System.nanoTime());
+        timeline.painted(3);
+
+        LoadTimeline.PageTiming page = timeline.getPage(3);
+        assertEquals(LoadTimeline.Source.NETWORK, page.source());
+        assertEquals(2048, page.bytes());
+        assertEquals(firstPaint, page.paintedAt());
+        assertTrue(page.fetchStart() <= page.fetchEnd());
+        assertEquals(-1, page.scaleMillis());
+        assertNull(timeline.getPage(0));
+    }
+
+    @Test
+    public void testOnlyTheFirstRunOfEachPluginChainCounts() {
+        LoadTimeline timeline = new LoadTimeline();
+        timeline.processedRaster(4, 2_000_000);
+        assertEquals(2, timeline.getPage(4).processMillis());
+
+        // Later tiles and re-decodes run the raster chain again
+        timeline.processedRaster(4, 5_000_000);
+        timeline.processedBytes(4, 1_000_000);
+        timeline.processedBytes(4, 7_000_000);
+        assertEquals(3, timeline.getPage(4).processMillis());
+    }
+
+    @Test
+    public void testSummaryCountsSourcesAndPaints() {
+        LoadTimeline timeline = new LoadTimeline();
+        long start = System.nanoTime();
+        timeline.fetched(2, start, 100, LoadTimeline.Source.DISK);
+        timeline.fetched(0, start, 300, LoadTimeline.Source.NETWORK);
+        timeline.fetched(1, start, 200, LoadTimeline.Source.NETWORK);
+        timeline.processedBytes(1, 1_000_000);
+        timeline.processedRaster(1, 2_000_000);
+        timeline.painted(1);
+        timeline.stage("API", start);
+
+        List<LoadTimeline.PageTiming> pages = timeline.getPages();
+        assertEquals(3, pages.size());
+        assertEquals(0, pages.get(0).page());
+        assertEquals(3, pages.get(1).processMillis());
+
+        LoadTimeline.Summary summary = timeline.summarize();
+        assertEquals(2, summary.sources()[LoadTimeline.Source.NETWORK.ordinal()]);
+        assertEquals(1, summary.sources()[LoadTimeline.Source.DISK.ordinal()]);
+        assertEquals(600, summary.bytes());
+        assertEquals(1, summary.painted());
+        assertEquals(-1, summary.meanDecodeMillis());
+        assertEquals("API", timeline.getStages().get(0).name());
+    }
+}
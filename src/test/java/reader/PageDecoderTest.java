@@ -0,0 +1,47 @@
+package reader;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PageDecoderTest {
+
+    private final PageDecoder decoder = new PageDecoder();
+
+    @Test
+    public void testSubsamplingNeverDropsBelowTarget() {
+        assertEquals(1, PageDecoder.subsamplingFor(1100, 1100));
+        assertEquals(1, PageDecoder.subsamplingFor(1100, 2200));
+        assertEquals(1, PageDecoder.subsamplingFor(1100, 600));
+        assertEquals(2, PageDecoder.subsamplingFor(1100, 550));
+        assertEquals(4, PageDecoder.subsamplingFor(1100, 250));
+        assertEquals(1, PageDecoder.subsamplingFor(1100, 0));
+    }
+
+    @Test
+    public void testSubsampledAndRegionDecode() throws Exception {
+        byte[] png = encode(new BufferedImage(100, 60, BufferedImage.TYPE_INT_RGB));
+        LoadSession session = new LoadSession("test");
+
+        assertEquals(100, decoder.readSize(png).width);
+
+        BufferedImage subsampled = decoder.decode(png, session, 3, null);
+        assertEquals(34, subsampled.getWidth());
+        assertEquals(20, subsampled.getHeight());
+
+        BufferedImage region = decoder.decode(png, session, 1, new Rectangle(0, 20, 100, 30));
+        assertEquals(100, region.getWidth());
+        assertEquals(30, region.getHeight());
+    }
+
+    private static byte[] encode(BufferedImage image) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
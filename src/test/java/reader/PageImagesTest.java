@@ -0,0 +1,81 @@
+package reader;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.WritableRaster;
+import javax.imageio.ImageTypeSpecifier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PageImagesTest {
+
+    @Test
+    public void testMonochromePageBecomesByteGray() {
+        BufferedImage page = new BufferedImage(200, 300, BufferedImage.TYPE_3BYTE_BGR);
+        Graphics2D g2d = page.createGraphics();
+        g2d.setColor(Color.WHITE);
+        g2d.fillRect(0, 0, 200, 300);
+        g2d.setColor(new Color(40, 42, 38));
+        g2d.fillRect(20, 20, 100, 150);
+        g2d.dispose();
+
+        BufferedImage converted = PageImages.toDisplayFormat(page, null);
+        assertEquals(BufferedImage.TYPE_BYTE_GRAY, converted.getType());
+        assertEquals(200L * 300, PageImages.sizeInBytes(converted));
+        assertEquals(255, converted.getRaster().getSample(5, 5, 0));
+    }
+
+    @Test
+    public void testTransparentGrayPageIsCompositedOntoWhite() {
+        // Gray + alpha, as decoded from a PNG: fully transparent left half, opaque black right half
+        BufferedImage page = ImageTypeSpecifier.createGrayscale(8, DataBuffer.TYPE_BYTE, false, false)
+                .createBufferedImage(100, 100);
+        WritableRaster raster = page.getRaster();
+        for (int y = 0; y < 100; y++) {
+            for (int x = 50; x < 100; x++) {
+                raster.setSample(x, y, 1, 255);
+            }
+        }
+
+        BufferedImage converted = PageImages.toDisplayFormat(page, null);
+        assertEquals(BufferedImage.TYPE_BYTE_GRAY, converted.getType());
+        assertEquals(255, converted.getRaster().getSample(10, 10, 0));
+        assertEquals(0, converted.getRaster().getSample(90, 10, 0));
+    }
+
+    @Test
+    public void testColourPageBecomesOpaque() {
+        BufferedImage page = new BufferedImage(200, 300, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = page.createGraphics();
+        g2d.setColor(Color.RED);
+        g2d.fillRect(0, 0, 200, 150);
+        g2d.dispose();
+
+        BufferedImage converted = PageImages.toDisplayFormat(page, null);
+        assertEquals(Transparency.OPAQUE, converted.getTransparency());
+        assertEquals(BufferedImage.TYPE_INT_RGB, converted.getType());
+        // The transparent half is composited onto white
+        assertEquals(0xFFFFFF, converted.getRGB(10, 200) & 0xFFFFFF);
+    }
+
+    @Test
+    public void testCopyRowsKeepsFormatAndPixels() {
+        BufferedImage page = new BufferedImage(4, 6, BufferedImage.TYPE_BYTE_GRAY);
+        for (int y = 0; y < 6; y++) {
+            for (int x = 0; x < 4; x++) {
+                page.getRaster().setSample(x, y, 0, y * 10 + x);
+            }
+        }
+
+        BufferedImage band = PageImages.copyRows(page, 1, 4, null, null);
+        assertEquals(BufferedImage.TYPE_BYTE_GRAY, band.getType());
+        assertEquals(4, band.getHeight());
+        assertEquals(10, band.getRaster().getSample(0, 0, 0));
+        assertEquals(43, band.getRaster().getSample(3, 3, 0));
+    }
+}
@@ -0,0 +1,161 @@
+package reader;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PageLoadPipelineTest {
+
+    @Test
+    public void testPagesArriveInOrderDespiteOutOfOrderFetches() throws Exception {
+        List<Integer> published = new ArrayList<>();
+
+        new PageLoadPipeline<Integer>(
+                new LoadSession("test"),
+                12,
+                pageIndex -> {
+                    // Early pages are the slowest to arrive
+                    Thread.sleep((12 - pageIndex) * 5L);
+                    return new byte[]{(byte) pageIndex};
+                },
+                (pageIndex, data) -> (int) data[0],
+                (pageIndex, page, error) -> {
+                    assertNull(error);
+                    assertEquals(pageIndex, page);
+                    published.add(page);
+                }
+        ).start().get(10, TimeUnit.SECONDS);
+
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11), published);
+    }
+
+    @Test
+    public void testFailedPageDoesNotStallLaterPages() throws Exception {
+        List<String> published = new ArrayList<>();
+
+        new PageLoadPipeline<Integer>(
+                new LoadSession("test"),
+                3,
+                pageIndex -> {
+                    if (pageIndex == 1) throw new IllegalStateException("404");
+                    return new byte[]{(byte) pageIndex};
+                },
+                (pageIndex, data) -> (int) data[0],
+                (pageIndex, page, error) -> published.add(error != null ? "error:" + error.getMessage() : "page:" + page)
+        ).start().get(10, TimeUnit.SECONDS);
+
+        assertEquals(List.of("page:0", "error:404", "page:2"), published);
+    }
+
+    @Test
+    public void testCancelledSessionStopsPublishingAndInterruptsFetches() throws Exception {
+        LoadSession session = new LoadSession("test");
+        List<Integer> published = new ArrayList<>();
+        CountDownLatch firstPublished = new CountDownLatch(1);
+        CountDownLatch fetching = new CountDownLatch(1);
+        AtomicInteger interrupted = new AtomicInteger();
+
+        CompletableFuture<Void> done = new PageLoadPipeline<Integer>(
+                session,
+                20,
+                pageIndex -> {
+                    if (pageIndex == 0) return new byte[]{0};
+                    fetching.countDown();
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        interrupted.incrementAndGet();
+                        throw e;
+                    }
+                    return new byte[]{(byte) pageIndex};
+                },
+                (pageIndex, data) -> (int) data[0],
+                (pageIndex, page, error) -> {
+                    published.add(page);
+                    firstPublished.countDown();
+                }
+        ).start();
+
+        assertTrue(firstPublished.await(5, TimeUnit.SECONDS));
+        assertTrue(fetching.await(5, TimeUnit.SECONDS));
+        session.cancel();
+        done.get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of(0), published);
+        // cancel() completes the task before the interrupted worker has run its catch block
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (interrupted.get() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(interrupted.get() > 0, "running fetches should be interrupted");
+    }
+
+    @Test
+    public void testGatedPipelineOnlyFetchesAdmittedPages() throws Exception {
+        List<Integer> fetched = new ArrayList<>();
+        List<Integer> published = new ArrayList<>();
+
+        PageLoadPipeline<Integer> pipeline = new PageLoadPipeline<Integer>(
+                new LoadSession("test"),
+                10,
+                pageIndex -> {
+                    synchronized (fetched) {
+                        fetched.add(pageIndex);
+                    }
+                    return new byte[]{(byte) pageIndex};
+                },
+                (pageIndex, data) -> (int) data[0],
+                (pageIndex, page, error) -> {
+                    synchronized (published) {
+                        published.add(page);
+                    }
+                }
+        ).gated();
+        pipeline.admitUpTo(2);
+        CompletableFuture<Void> done = pipeline.start();
+
+        Thread.sleep(200);
+        synchronized (fetched) {
+            assertEquals(3, fetched.size());
+        }
+        assertFalse(done.isDone());
+
+        pipeline.admitUpTo(9);
+        done.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), published);
+    }
+
+    @Test
+    public void testAdmittedLoadedIgnoresPagesNeverAdmitted() throws Exception {
+        List<Integer> published = new ArrayList<>();
+
+        PageLoadPipeline<Integer> pipeline = new PageLoadPipeline<Integer>(
+                new LoadSession("test"),
+                10,
+                pageIndex -> new byte[]{(byte) pageIndex},
+                (pageIndex, data) -> (int) data[0],
+                (pageIndex, page, error) -> {
+                    synchronized (published) {
+                        published.add(page);
+                    }
+                }
+        ).gated();
+        pipeline.admitUpTo(3);
+        CompletableFuture<Void> done = pipeline.start();
+
+        // Completes although pages 4-9 are never admitted
+        pipeline.admittedLoaded().get(5, TimeUnit.SECONDS);
+        assertFalse(done.isDone());
+
+        pipeline.admitUpTo(9);
+        done.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), published);
+    }
+}
@@ -0,0 +1,48 @@
+package reader;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PageRingTest {
+
+    @Test
+    public void testWindowMapsToDistinctSlots() {
+        PageRing<String> ring = new PageRing<>(5);
+        for (int page = 10; page < 15; page++) {
+            assertNull(ring.put(page, "p" + page));
+        }
+        for (int page = 10; page < 15; page++) {
+            assertEquals("p" + page, ring.get(page));
+        }
+        // Another page sharing a slot is not mistaken for the one kept there
+        assertNull(ring.get(15));
+        assertNull(ring.get(5));
+    }
+
+    @Test
+    public void testMovingWindowReusesTheSlotThatFellOut() {
+        PageRing<String> ring = new PageRing<>(5);
+        for (int page = 0; page < 5; page++) {
+            ring.put(page, "p" + page);
+        }
+
+        assertEquals(List.of("p0"), ring.retainRange(1, 5));
+        assertNull(ring.put(5, "p5"));
+        assertEquals("p5", ring.get(5));
+        assertNull(ring.get(0));
+        assertEquals("p1", ring.put(6, "p6"));
+    }
+
+    @Test
+    public void testClearReturnsEverything() {
+        PageRing<String> ring = new PageRing<>(3);
+        ring.put(0, "a");
+        ring.put(2, "c");
+        assertEquals(2, ring.clear().size());
+        assertNull(ring.get(0));
+        assertTrue(ring.clear().isEmpty());
+    }
+}
@@ -0,0 +1,52 @@
+package reader;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Rectangle;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PageTilesTest {
+
+    @Test
+    public void testOnlyTallStripsAreTiled() {
+        assertFalse(PageTiles.isTiled(1100, 1600));
+        assertFalse(PageTiles.isTiled(1100, 4000));
+        assertTrue(PageTiles.isTiled(800, 20000));
+        assertTrue(PageTiles.isTiled(2400, 9000));
+        assertFalse(PageTiles.isTiled(0, 20000));
+    }
+
+    @Test
+    public void testTilesCoverThePageWithoutOverlap() {
+        int height = 20000;
+        int count = PageTiles.tileCount(height);
+        assertEquals(10, count);
+
+        int covered = 0;
+        for (int i = 0; i < count; i++) {
+            Rectangle region = PageTiles.region(i, 800, height);
+            assertEquals(covered, region.y);
+            covered += region.height;
+        }
+        assertEquals(height, covered);
+        assertEquals(20000 - 9 * PageTiles.TILE_HEIGHT, PageTiles.region(9, 800, height).height);
+    }
+
+    @Test
+    public void testTilesBetweenRows() {
+        assertArrayEquals(new int[]{0, 0}, PageTiles.tilesBetween(0, 100, 20000));
+        assertArrayEquals(new int[]{0, 1}, PageTiles.tilesBetween(2000, 2100, 20000));
+        assertArrayEquals(new int[]{9, 9}, PageTiles.tilesBetween(19000, 25000, 20000));
+        assertNull(PageTiles.tilesBetween(-500, 0, 20000));
+        assertNull(PageTiles.tilesBetween(20000, 21000, 20000));
+    }
+
+    @Test
+    public void testContextStaysWithinThePage() {
+        int height = 5000;
+        assertEquals(new Rectangle(0, 0, 800, 2050), PageTiles.withContext(PageTiles.region(0, 800, height), 2, height));
+        assertEquals(new Rectangle(0, 2046, 800, 2052), PageTiles.withContext(PageTiles.region(1, 800, height), 2, height));
+        assertEquals(new Rectangle(0, 4094, 800, 906), PageTiles.withContext(PageTiles.region(2, 800, height), 2, height));
+    }
+}
@@ -0,0 +1,60 @@
+package reader;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PixelPoolTest {
+
+    @Test
+    public void testReleasedPixelsAreReused() {
+        PixelPool pool = new PixelPool(64L * 1024 * 1024);
+        BufferedImage first = pool.acquire(BufferedImage.TYPE_BYTE_GRAY, 700, 1000);
+        assertEquals(700, first.getWidth());
+        assertEquals(1000, first.getHeight());
+        pool.release(first);
+
+        // Same size class, so the same backing raster comes back
+        BufferedImage second = pool.acquire(BufferedImage.TYPE_BYTE_GRAY, 720, 1020);
+        assertSame(first.getRaster().getDataBuffer(), second.getRaster().getDataBuffer());
+        assertEquals(0.5, pool.hitRate(), 1e-9);
+    }
+
+    @Test
+    public void testPixelsStayOutOfPoolWhileReferenced() {
+        PixelPool pool = new PixelPool(64L * 1024 * 1024);
+        BufferedImage image = pool.acquire(BufferedImage.TYPE_BYTE_GRAY, 700, 1000);
+        pool.retain(image);
+        pool.release(image);
+        assertEquals(0, pool.idleBytes());
+
+        pool.release(image);
+        assertTrue(pool.idleBytes() > 0);
+        // A second release of the last reference is ignored
+        pool.release(image);
+        assertNotSame(image.getRaster().getDataBuffer(),
+                pool.acquire(BufferedImage.TYPE_INT_RGB, 700, 1000).getRaster().getDataBuffer());
+    }
+
+    @Test
+    public void testIdlePixelsAreBoundedByCapacity() {
+        PixelPool pool = new PixelPool(1024 * 1024);
+        BufferedImage small = pool.acquire(BufferedImage.TYPE_BYTE_GRAY, 500, 500);
+        BufferedImage large = pool.acquire(BufferedImage.TYPE_BYTE_GRAY, 1200, 1200);
+        pool.release(small);
+        pool.release(large);
+
+        assertEquals(PageImages.sizeInBytes(small), pool.idleBytes());
+    }
+
+    @Test
+    public void testForeignImagesAreIgnored() {
+        PixelPool pool = new PixelPool(1024 * 1024);
+        BufferedImage image = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        pool.retain(image);
+        pool.release(image);
+        assertEquals(0, pool.idleBytes());
+    }
+}
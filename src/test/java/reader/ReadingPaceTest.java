@@ -0,0 +1,45 @@
+package reader;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReadingPaceTest {
+
+    @Test
+    public void testFastReaderGetsDeeperWindowThanSlowReader() {
+        ReadingPace fast = new ReadingPace(8, 2);
+        ReadingPace slow = new ReadingPace(8, 2);
+        long now = 0;
+        for (int page = 0; page < 20; page++) {
+            fast.onPageChanged(page, now + page * 1_000L);
+            slow.onPageChanged(page, now + page * 30_000L);
+        }
+
+        assertTrue(fast.pagesAhead(100) > slow.pagesAhead(100));
+        assertEquals(2, slow.pagesAhead(100));
+        assertTrue(fast.pagesPerMinute() > 50);
+    }
+
+    @Test
+    public void testJumpsAndBreaksAreNotReadingTime() {
+        ReadingPace pace = new ReadingPace(8, 2);
+        pace.onPageChanged(0, 0);
+        // A jump to the end and a long break say nothing about reading speed
+        pace.onPageChanged(40, 1_000);
+        pace.onPageChanged(41, 1_000 + 10 * 60 * 1000L);
+
+        assertEquals(60.0 / ReadingPace.DEFAULT_SECONDS_PER_PAGE, pace.pagesPerMinute(), 0.001);
+    }
+
+    @Test
+    public void testWindowRespectsCap() {
+        ReadingPace pace = new ReadingPace(8, 2);
+        for (int page = 0; page < 20; page++) {
+            pace.onPageChanged(page, page * 500L);
+        }
+        pace.onPageFetched(3_000);
+
+        assertEquals(5, pace.pagesAhead(5));
+    }
+}
@@ -0,0 +1,44 @@
+package reader;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WeightedLruCacheTest {
+
+    @Test
+    public void testEvictsLeastRecentlyUsedByWeight() {
+        WeightedLruCache<String, byte[]> cache = new WeightedLruCache<>(10, b -> b.length);
+        cache.put("a", new byte[4]);
+        cache.put("b", new byte[4]);
+
+        // Touch "a" so "b" becomes the eldest
+        assertNotNull(cache.get("a"));
+        cache.put("c", new byte[4]);
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(8, cache.weight());
+    }
+
+    @Test
+    public void testReplaceUpdatesWeight() {
+        WeightedLruCache<String, byte[]> cache = new WeightedLruCache<>(10, b -> b.length);
+        cache.put("a", new byte[6]);
+        cache.put("a", new byte[2]);
+
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.weight());
+    }
+
+    @Test
+    public void testOversizedValueIsNotCached() {
+        WeightedLruCache<String, byte[]> cache = new WeightedLruCache<>(10, b -> b.length);
+        cache.put("a", new byte[4]);
+        cache.put("huge", new byte[11]);
+
+        assertNull(cache.get("huge"));
+        assertNotNull(cache.get("a"));
+    }
+}
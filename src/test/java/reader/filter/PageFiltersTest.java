@@ -0,0 +1,87 @@
+package reader.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PageFiltersTest {
+
+    private static final FilterSettings[] SETTINGS = {
+            new FilterSettings(20, 1.3, 1.0, 0.0, false),
+            new FilterSettings(-10, 0.8, 1.8, 0.0, true),
+            new FilterSettings(0, 1.0, 1.0, 0.7, false),
+            new FilterSettings(15, 1.6, 1.0, 1.0, true),
+    };
+
+    private static BufferedImage noise(int type, int width, int height, long seed) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Random random = new Random(seed);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        return image;
+    }
+
+    private static int[] pixels(BufferedImage image) {
+        return image.getRaster().getPixels(0, 0, image.getWidth(), image.getHeight(), (int[]) null);
+    }
+
+    @Test
+    public void testLinearToneOnGray() {
+        BufferedImage page = new BufferedImage(3, 1, BufferedImage.TYPE_BYTE_GRAY);
+        page.getRaster().setPixels(0, 0, 3, 1, new int[]{0, 128, 250});
+        PageFilters filters = new PageFilters(new ScalarKernels());
+
+        assertTrue(filters.apply(page.getRaster(), new FilterSettings(10, 1.0, 1.0, 0.0, false)));
+        assertArrayEquals(new int[]{26, 154, 255}, pixels(page));
+    }
+
+    @Test
+    public void testVectorKernelsMatchScalarKernels() throws Exception {
+        PageFilters scalar = new PageFilters(new ScalarKernels());
+        PageFilters vector;
+        try {
+            vector = new PageFilters(PageFilters.vectorKernels());
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Running without --add-modules jdk.incubator.vector
+            return;
+        }
+
+        // Odd widths exercise the scalar tails of the vector loops
+        for (int type : new int[]{BufferedImage.TYPE_BYTE_GRAY, BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_BGR}) {
+            for (FilterSettings settings : SETTINGS) {
+                BufferedImage expected = noise(type, 97, 23, 42);
+                BufferedImage actual = noise(type, 97, 23, 42);
+                scalar.apply(expected.getRaster(), settings);
+                vector.apply(actual.getRaster(), settings);
+                assertArrayEquals(pixels(expected), pixels(actual));
+            }
+        }
+    }
+
+    @Test
+    public void testContentBoundsSkipWhiteMargins() {
+        for (int type : new int[]{BufferedImage.TYPE_BYTE_GRAY, BufferedImage.TYPE_INT_RGB}) {
+            BufferedImage page = new BufferedImage(120, 80, type);
+            int[] white = new int[120 * 80 * page.getRaster().getNumBands()];
+            Arrays.fill(white, 250);
+            page.getRaster().setPixels(0, 0, 120, 80, white);
+            PageFilters filters = PageFilters.getInstance();
+            assertNull(filters.contentBounds(page.getRaster(), PageFilters.DEFAULT_WHITE_THRESHOLD));
+
+            page.setRGB(7, 30, 0);
+            page.setRGB(101, 12, 0);
+            page.setRGB(50, 61, 0);
+            assertEquals(new Rectangle(7, 12, 95, 50),
+                    filters.contentBounds(page.getRaster(), PageFilters.DEFAULT_WHITE_THRESHOLD));
+            assertEquals(95, filters.crop(page).getWidth());
+        }
+    }
+}
@@ -0,0 +1,433 @@
+package stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.imageio.ImageIO;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the MangaDex API and at-home image nodes.
+ * Replays the recorded responses in src/test/resources/mangadex-fixtures so
+ * the client, reader loading and caching can be benchmarked offline.
+ *
+ * Run with:
+ *   mvn exec:java -Dexec.mainClass=stub.MangaDexStubServer -Dexec.classpathScope=test
+ *       -Dexec.args="--port=8089 --latency-ms=80 --kib-per-second=2048"
+ * and start the app with -Dshiori.api.url=http://localhost:8089
+ *
+ * Options (all optional):
+ *   --port=N              listen port (0 picks a free one), default 8089
+ *   --latency-ms=N        delay before every response, default 0
+ *   --jitter-ms=N         extra random delay of up to N ms, default 0
+ *   --kib-per-second=N    throttle response bodies to N KiB/s, 0 = unlimited
+ *   --error-rate=F        fraction of requests answered with 500, default 0
+ *   --rate-limit-rate=F   fraction of requests answered with 429, default 0
+ *   --page-size=WxH       size of synthesized page images, default 1100x1600
+ *   --fixtures=DIR        read fixtures from DIR instead of the classpath
+ *   --seed=N              seed for injected failures and jitter
+ */
+public class MangaDexStubServer {
+
+    private static final String FIXTURE_RESOURCE = "/mangadex-fixtures/";
+
+    private final Options options;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Random random;
+    private final Map<String, byte[]> images = new ConcurrentHashMap<>();
+    private final AtomicLong requestCount = new AtomicLong();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public MangaDexStubServer(Options options) {
+        this.options = options;
+        this.random = new Random(options.seed);
+    }
+
+    public static void main(String[] args) throws IOException {
+        MangaDexStubServer stub = new MangaDexStubServer(Options.parse(args));
+        stub.start();
+        System.out.println("MangaDex stub listening on " + stub.getBaseUrl());
+    }
+
+    /**
+     * Start listening. Returns once the socket is bound.
+     */
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", options.port), 0);
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "stub-http");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Base URL to point -Dshiori.api.url at.
+     */
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Total number of requests served, including injected failures.
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        try {
+            sleep(options.latencyMs + (options.jitterMs > 0 ? nextInt(options.jitterMs + 1) : 0));
+
+            if (options.rateLimitRate > 0 && nextDouble() < options.rateLimitRate) {
+                exchange.getResponseHeaders().add("Retry-After", "1");
+                sendJson(exchange, 429, "{\"result\":\"error\",\"errors\":[{\"status\":429,\"title\":\"Too Many Requests\"}]}");
+                return;
+            }
+            if (options.errorRate > 0 && nextDouble() < options.errorRate) {
+                sendJson(exchange, 500, "{\"result\":\"error\",\"errors\":[{\"status\":500,\"title\":\"Injected failure\"}]}");
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            Map<String, List<String>> query = parseQuery(exchange.getRequestURI().getRawQuery());
+
+            if (path.startsWith("/data/") || path.startsWith("/data-saver/")) {
+                serveImage(exchange, path);
+            } else if (path.equals("/manga")) {
+                sendJson(exchange, 200, filterCollection(readFixture("manga.json"), query));
+            } else if (path.startsWith("/manga/")) {
+                serveSingle(exchange, readFixture("manga.json"), path.substring("/manga/".length()));
+            } else if (path.equals("/chapter")) {
+                sendJson(exchange, 200, filterCollection(readFixture("chapter.json"), query));
+            } else if (path.startsWith("/at-home/server/")) {
+                serveAtHome(exchange, path.substring("/at-home/server/".length()));
+            } else if (path.startsWith("/statistics/manga")) {
+                serveStatistics(exchange, path, query);
+            } else {
+                sendJson(exchange, 404, "{\"result\":\"error\",\"errors\":[{\"status\":404}]}");
+            }
+        } catch (Exception e) {
+            // Headers may already be out if the client went away mid-body
+            if (exchange.getResponseCode() == -1) {
+                sendJson(exchange, 500, "{\"result\":\"error\",\"detail\":" + mapper.writeValueAsString(String.valueOf(e)) + "}");
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private String filterCollection(JsonNode fixture, Map<String, List<String>> query) throws IOException {
+        List<String> ids = query.getOrDefault("ids[]", List.of());
+        String manga = first(query, "manga");
+        String title = first(query, "title");
+
+        ArrayNode filtered = mapper.createArrayNode();
+        for (JsonNode item : fixture.path("data")) {
+            if (!ids.isEmpty() && !ids.contains(item.path("id").asText())) continue;
+            if (manga != null && !relatesTo(item, manga)) continue;
+            if (title != null && !item.path("attributes").path("title").toString().toLowerCase(Locale.ROOT)
+                    .contains(title.toLowerCase(Locale.ROOT))) continue;
+            filtered.add(item);
+        }
+
+        ObjectNode root = ((ObjectNode) fixture).deepCopy();
+        root.set("data", filtered);
+        root.put("total", filtered.size());
+        return mapper.writeValueAsString(root);
+    }
+
+    private void serveSingle(HttpExchange exchange, JsonNode fixture, String id) throws IOException {
+        for (JsonNode item : fixture.path("data")) {
+            if (item.path("id").asText().equals(id)) {
+                ObjectNode root = mapper.createObjectNode();
+                root.put("result", "ok");
+                root.put("response", "entity");
+                root.set("data", item);
+                sendJson(exchange, 200, mapper.writeValueAsString(root));
+                return;
+            }
+        }
+        sendJson(exchange, 404, "{\"result\":\"error\",\"errors\":[{\"status\":404}]}");
+    }
+
+    private void serveAtHome(HttpExchange exchange, String chapterId) throws IOException {
+        JsonNode fixture = readFixture("at-home/" + chapterId + ".json");
+        if (fixture == null) {
+            sendJson(exchange, 404, "{\"result\":\"error\",\"errors\":[{\"status\":404}]}");
+            return;
+        }
+        ObjectNode root = ((ObjectNode) fixture).deepCopy();
+        root.put("baseUrl", getBaseUrl());
+        root.remove("stubPageSize");
+        sendJson(exchange, 200, mapper.writeValueAsString(root));
+    }
+
+    private void serveStatistics(HttpExchange exchange, String path, Map<String, List<String>> query) throws IOException {
+        JsonNode all = readFixture("statistics.json").path("statistics");
+        List<String> ids = path.startsWith("/statistics/manga/")
+                ? List.of(path.substring("/statistics/manga/".length()))
+                : query.getOrDefault("manga[]", List.of());
+
+        ObjectNode statistics = mapper.createObjectNode();
+        for (String id : ids) {
+            if (all.has(id)) statistics.set(id, all.get(id));
+        }
+        ObjectNode root = mapper.createObjectNode();
+        root.put("result", "ok");
+        root.set("statistics", statistics);
+        sendJson(exchange, 200, mapper.writeValueAsString(root));
+    }
+
+    private void serveImage(HttpExchange exchange, String path) throws IOException {
+        byte[] data = images.computeIfAbsent(path, p -> {
+            try {
+                byte[] recorded = readFixtureBytes(p.substring(1));
+                return recorded != null ? recorded : synthesizePage(p);
+            } catch (IOException e) {
+                throw new java.io.UncheckedIOException(e);
+            }
+        });
+        String type = path.endsWith(".png") ? "image/png" : "image/jpeg";
+        exchange.getResponseHeaders().add("Content-Type", type);
+        exchange.getResponseHeaders().add("Cache-Control", "public, max-age=1209600");
+        send(exchange, 200, data);
+    }
+
+    /**
+     * Render a deterministic placeholder page for image paths without a recorded file.
+     */
+    private byte[] synthesizePage(String path) throws IOException {
+        Dimension size = pageSizeFor(path);
+        BufferedImage image = new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            Random pageRandom = new Random(path.hashCode());
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, size.width, size.height);
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+            // A few bordered "panels" with some noise so the JPEG has realistic weight
+            int margin = 40;
+            int y = margin;
+            while (y < size.height - margin * 2) {
+                int panelHeight = Math.min(200 + pageRandom.nextInt(400), size.height - margin - y);
+                g.setColor(new Color(200 + pageRandom.nextInt(55), 200 + pageRandom.nextInt(55), 200 + pageRandom.nextInt(55)));
+                g.fillRect(margin, y, size.width - margin * 2, panelHeight);
+                g.setColor(Color.DARK_GRAY);
+                for (int i = 0; i < 60; i++) {
+                    g.drawLine(margin + pageRandom.nextInt(size.width - margin * 2), y + pageRandom.nextInt(panelHeight),
+                            margin + pageRandom.nextInt(size.width - margin * 2), y + pageRandom.nextInt(panelHeight));
+                }
+                g.setColor(Color.BLACK);
+                g.setStroke(new BasicStroke(4));
+                g.drawRect(margin, y, size.width - margin * 2, panelHeight);
+                y += panelHeight + margin / 2;
+            }
+
+            g.setFont(g.getFont().deriveFont(Font.BOLD, 48f));
+            g.drawString(path.substring(path.lastIndexOf('/') + 1, Math.min(path.length(), path.lastIndexOf('/') + 4)),
+                    margin * 2, margin * 3);
+        } finally {
+            g.dispose();
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, path.endsWith(".png") ? "png" : "jpg", out);
+        return out.toByteArray();
+    }
+
+    private Dimension pageSizeFor(String path) throws IOException {
+        // /data/{hash}/{file}: chapters may override the default size in their fixture
+        String[] parts = path.split("/");
+        if (parts.length >= 3) {
+            String hash = parts[2];
+            for (String name : listFixtures()) {
+                JsonNode fixture = readFixture("at-home/" + name);
+                if (fixture != null && hash.equals(fixture.path("chapter").path("hash").asText())
+                        && fixture.has("stubPageSize")) {
+                    return Options.parseSize(fixture.get("stubPageSize").asText());
+                }
+            }
+        }
+        return options.pageSize;
+    }
+
+    private List<String> listFixtures() throws IOException {
+        List<String> names = new ArrayList<>();
+        if (options.fixturesDir != null) {
+            try (var stream = Files.list(options.fixturesDir.resolve("at-home"))) {
+                stream.forEach(p -> names.add(p.getFileName().toString()));
+            }
+            return names;
+        }
+        // Classpath fixtures: the chapter list tells us which at-home files exist
+        for (JsonNode chapter : readFixture("chapter.json").path("data")) {
+            names.add(chapter.path("id").asText() + ".json");
+        }
+        return names;
+    }
+
+    private JsonNode readFixture(String name) throws IOException {
+        byte[] data = readFixtureBytes(name);
+        return data != null ? mapper.readTree(data) : null;
+    }
+
+    private byte[] readFixtureBytes(String name) throws IOException {
+        if (name.contains("..")) return null;
+        if (options.fixturesDir != null) {
+            Path file = options.fixturesDir.resolve(name);
+            return Files.isRegularFile(file) ? Files.readAllBytes(file) : null;
+        }
+        try (InputStream in = MangaDexStubServer.class.getResourceAsStream(FIXTURE_RESOURCE + name)) {
+            return in != null ? in.readAllBytes() : null;
+        }
+    }
+
+    private boolean relatesTo(JsonNode item, String id) {
+        for (JsonNode rel : item.path("relationships")) {
+            if (rel.path("id").asText().equals(id)) return true;
+        }
+        return false;
+    }
+
+    private void sendJson(HttpExchange exchange, int status, String body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        send(exchange, status, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Write a response body, throttled to the configured bandwidth.
+     */
+    private void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            if (options.kibPerSecond <= 0) {
+                out.write(body);
+                return;
+            }
+            int chunk = 4096;
+            double msPerChunk = chunk * 1000.0 / (options.kibPerSecond * 1024.0);
+            for (int off = 0; off < body.length; off += chunk) {
+                out.write(body, off, Math.min(chunk, body.length - off));
+                out.flush();
+                sleep((long) msPerChunk);
+            }
+        }
+    }
+
+    private static Map<String, List<String>> parseQuery(String rawQuery) {
+        Map<String, List<String>> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) return params;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq >= 0 ? pair.substring(0, eq) : pair, StandardCharsets.UTF_8);
+            String value = eq >= 0 ? URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8) : "";
+            params.computeIfAbsent(key, k -> new ArrayList<>()).add(value);
+        }
+        return params;
+    }
+
+    private static String first(Map<String, List<String>> query, String key) {
+        List<String> values = query.get(key);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    private synchronized int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    private synchronized double nextDouble() {
+        return random.nextDouble();
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) return;
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stub configuration, parsed from --key=value arguments.
+     */
+    public static class Options {
+        int port = 8089;
+        long latencyMs = 0;
+        int jitterMs = 0;
+        long kibPerSecond = 0;
+        double errorRate = 0;
+        double rateLimitRate = 0;
+        Dimension pageSize = new Dimension(1100, 1600);
+        Path fixturesDir;
+        long seed = 42;
+
+        public static Options parse(String... args) {
+            Options o = new Options();
+            for (String arg : args) {
+                if (!arg.startsWith("--") || !arg.contains("=")) {
+                    throw new IllegalArgumentException("Expected --key=value, got: " + arg);
+                }
+                String key = arg.substring(2, arg.indexOf('='));
+                String value = arg.substring(arg.indexOf('=') + 1);
+                switch (key) {
+                    case "port" -> o.port = Integer.parseInt(value);
+                    case "latency-ms" -> o.latencyMs = Long.parseLong(value);
+                    case "jitter-ms" -> o.jitterMs = Integer.parseInt(value);
+                    case "kib-per-second" -> o.kibPerSecond = Long.parseLong(value);
+                    case "error-rate" -> o.errorRate = Double.parseDouble(value);
+                    case "rate-limit-rate" -> o.rateLimitRate = Double.parseDouble(value);
+                    case "page-size" -> o.pageSize = parseSize(value);
+                    case "fixtures" -> o.fixturesDir = Paths.get(value);
+                    case "seed" -> o.seed = Long.parseLong(value);
+                    default -> throw new IllegalArgumentException("Unknown option: --" + key);
+                }
+            }
+            return o;
+        }
+
+        static Dimension parseSize(String value) {
+            String[] parts = value.toLowerCase(Locale.ROOT).split("x");
+            return new Dimension(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MangaDexStubServerTest {
+
+    private static final String CHAPTER_ID = "5a1c0e44-7b3d-4f0a-8c2e-000000000001";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private MangaDexStubServer stub;
+
+    @AfterEach
+    public void tearDown() {
+        if (stub != null) stub.stop();
+    }
+
+    @Test
+    public void testAtHomeServesPagesFromStub() throws Exception {
+        stub = start("--port=0");
+
+        JsonNode atHome = getJson("/at-home/server/" + CHAPTER_ID);
+        assertEquals(stub.getBaseUrl(), atHome.get("baseUrl").asText());
+        assertEquals(60, atHome.get("chapter").get("data").size());
+
+        String url = atHome.get("baseUrl").asText() + "/data/" + atHome.get("chapter").get("hash").asText()
+                + "/" + atHome.get("chapter").get("data").get(0).asText();
+        HttpResponse<byte[]> page = client.send(HttpRequest.newBuilder(URI.create(url)).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, page.statusCode());
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(page.body()));
+        assertNotNull(image);
+        assertEquals(1100, image.getWidth());
+        assertEquals(1600, image.getHeight());
+    }
+
+    @Test
+    public void testBatchedLookupsFilterFixtures() throws Exception {
+        stub = start("--port=0");
+
+        JsonNode mangas = getJson("/manga?ids[]=2f6b8c6e-1d2a-4c1e-9a51-3f0d7b6a1c02");
+        assertEquals(1, mangas.get("data").size());
+
+        JsonNode stats = getJson("/statistics/manga?manga[]=2f6b8c6e-1d2a-4c1e-9a51-3f0d7b6a1c01"
+                + "&manga[]=2f6b8c6e-1d2a-4c1e-9a51-3f0d7b6a1c02");
+        assertEquals(2, stats.get("statistics").size());
+    }
+
+    @Test
+    public void testRateLimitInjection() throws Exception {
+        stub = start("--port=0", "--rate-limit-rate=1.0");
+
+        HttpResponse<String> res = client.send(
+                HttpRequest.newBuilder(URI.create(stub.getBaseUrl() + "/manga")).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(429, res.statusCode());
+        assertTrue(res.headers().firstValue("Retry-After").isPresent());
+    }
+
+    private MangaDexStubServer start(String... args) throws Exception {
+        MangaDexStubServer server = new MangaDexStubServer(MangaDexStubServer.Options.parse(args));
+        server.start();
+        return server;
+    }
+
+    private JsonNode getJson(String path) throws Exception {
+        HttpResponse<String> res = client.send(
+                HttpRequest.newBuilder(URI.create(stub.getBaseUrl() + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, res.statusCode());
+        return mapper.readTree(res.body());
+    }
+}
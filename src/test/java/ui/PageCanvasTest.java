@@ -0,0 +1,52 @@
+package ui;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PageCanvasTest {
+
+    @Test
+    public void testPagesAreStackedFromPrefixSums() {
+        PageCanvas canvas = new PageCanvas();
+        canvas.add(new PageView(0, 800, 1200, true, 1.0, true));
+        canvas.add(new PageView(1, 1000, 500, true, 1.0, true));
+        canvas.add(new PageView(2, 800, 1200, true, 1.0, true));
+
+        assertEquals(0, canvas.pageTop(0));
+        assertEquals(1200, canvas.pageTop(1));
+        assertEquals(1700, canvas.pageTop(2));
+        assertEquals(1000, canvas.getPreferredSize().width);
+        assertEquals(2900, canvas.getPreferredSize().height);
+
+        assertEquals(0, canvas.pageAt(-10));
+        assertEquals(0, canvas.pageAt(1199));
+        assertEquals(1, canvas.pageAt(1200));
+        assertEquals(2, canvas.pageAt(1700));
+        assertEquals(2, canvas.pageAt(5000));
+    }
+
+    @Test
+    public void testResizedPageMovesOnlyThePagesBelow() {
+        PageCanvas canvas = new PageCanvas();
+        PageView first = new PageView(0, 800, 1200, true, 1.0, true);
+        PageView second = new PageView(1, 800, 1200, false, 1.0, true);
+        PageView third = new PageView(2, 800, 1200, true, 1.0, true);
+        canvas.add(first);
+        canvas.add(second);
+        canvas.add(third);
+        canvas.setSize(1000, 3600);
+        canvas.doLayout();
+        assertEquals(100, first.getX());
+        assertEquals(2400, third.getY());
+
+        // The real size of the second page arrives
+        second.setSourceSize(800, 3000);
+        canvas.doLayout();
+        assertEquals(0, first.getY());
+        assertEquals(1200, second.getY());
+        assertEquals(3000, second.getHeight());
+        assertEquals(4200, third.getY());
+        assertEquals(5400, canvas.getPreferredSize().height);
+    }
+}
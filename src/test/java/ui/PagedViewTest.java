@@ -0,0 +1,45 @@
+package ui;
+
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PagedViewTest {
+
+    @Test
+    public void testFrameRequestedBeforeClearIsDropped() throws Exception {
+        List<CompletableFuture<BufferedImage>> requests = new ArrayList<>();
+        List<PagedView> view = new ArrayList<>();
+        SwingUtilities.invokeAndWait(() -> {
+            PagedView paged = new PagedView(0, (pageIndex, width, height) -> {
+                CompletableFuture<BufferedImage> future = new CompletableFuture<>();
+                requests.add(future);
+                return future;
+            }, pageIndex -> new Dimension(400, 600));
+            paged.setSize(400, 600);
+            paged.open(1, 0);
+            // Same chapter reopened, e.g. after the filters changed: same page, same size
+            paged.clear();
+            paged.open(1, 0);
+            view.add(paged);
+        });
+        assertEquals(2, requests.size());
+
+        BufferedImage stale = new BufferedImage(400, 600, BufferedImage.TYPE_INT_RGB);
+        BufferedImage fresh = new BufferedImage(400, 600, BufferedImage.TYPE_INT_RGB);
+        requests.get(0).complete(stale);
+        SwingUtilities.invokeAndWait(() -> {});
+        assertNull(view.get(0).getFrame(0));
+
+        requests.get(1).complete(fresh);
+        SwingUtilities.invokeAndWait(() -> {});
+        assertSame(fresh, view.get(0).getFrame(0));
+    }
+}